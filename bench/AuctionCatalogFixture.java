@@ -0,0 +1,119 @@
+import benchmark.CatalogOperations;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * The AuctionCatalogFixture class implements the operations measured by the auction
+ * benchmark against a catalog and a set of buyers of the same size. Every fourth collection
+ * is still waiting for approval, and a lot is open for every approved collection.
+ */
+public class AuctionCatalogFixture implements CatalogOperations {
+    private static final int SELLER_ID = 1;
+    private static final double BASE_PRICE = 100.0;
+
+    private AntiqueCollectionList antiqueCollectionList;
+    private BuyerList buyerList;
+    private UserDirectory userDirectory;
+    private ArrayList<Buyer> buyers;
+    private int[] indexes;
+    private Auction auction;
+
+    /**
+     * Builds a catalog and a set of buyers, and opens a lot for every approved collection.
+     * The bid IDs of the whole run are reserved before any bid is measured.
+     *
+     * @param size          the number of collections and buyers
+     * @param workDirectory the directory the results file is written to
+     */
+    @Override
+    public void setUp(int size, Path workDirectory) {
+        antiqueCollectionList = AntiqueCollectionList.getInstance();
+        buyerList = new BuyerList();
+        userDirectory = UserDirectory.getInstance();
+        buyers = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Status status = id % 4 == 0 ? Status.PENDING : Status.APPROVED;
+            antiqueCollectionList.addCollection(new AntiqueCollection(id, "Collection " + id, "Furniture", 1,
+                    "Good condition", BASE_PRICE, status, SELLER_ID));
+
+            Buyer buyer = new Buyer(1_000_000 + id, "bench-buyer" + id, "pass" + id, "Buyer " + id, "", "");
+            buyerList.addBuyer(buyer);
+            buyers.add(buyer);
+        }
+
+        Random random = new Random(42);
+        indexes = new int[RANDOM_INDEXES];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = random.nextInt(size);
+        }
+
+        auction = new Auction(buyerList, workDirectory.resolve("auction_results.txt").toString());
+        for (AntiqueCollection collection : antiqueCollectionList.getApprovedCollections()) {
+            auction.openLot(collection);
+        }
+        IdAllocator.bids().nextId();
+    }
+
+    /**
+     * Places a bid on a random approved collection from a random buyer.
+     *
+     * @param position the position of the random index
+     * @return the result of the bid
+     */
+    @Override
+    public Object placeBid(int position) {
+        int collectionId = indexes[position] + 1;
+        if (collectionId % 4 == 0) {
+            collectionId--; // Collections with an ID that is a multiple of four are pending
+        }
+        double amount = BASE_PRICE + (position & 1023);
+        Buyer buyer = buyers.get(indexes[(position + 1) & (RANDOM_INDEXES - 1)]);
+        return auction.placeBid(buyer.getUsername(), collectionId, amount);
+    }
+
+    /**
+     * Looks up a random collection by its ID.
+     *
+     * @param position the position of the random index
+     * @return the collection
+     */
+    @Override
+    public Object getCollectionById(int position) {
+        return antiqueCollectionList.getCollectionById(indexes[position] + 1);
+    }
+
+    /**
+     * Lists the approved collections.
+     *
+     * @return the approved collections
+     */
+    @Override
+    public Object getApprovedCollections() {
+        return antiqueCollectionList.getApprovedCollections();
+    }
+
+    /**
+     * Checks the credentials of a random buyer. UserManager.login reads the credentials from
+     * the console and checks them with the directory.
+     *
+     * @param position the position of the random index
+     * @return the authenticated user
+     */
+    @Override
+    public Object login(int position) {
+        Buyer buyer = buyers.get(indexes[position]);
+        return userDirectory.authenticate(buyer.getUsername(), buyer.getPassword());
+    }
+
+    /**
+     * Looks up a random buyer by username.
+     *
+     * @param position the position of the random index
+     * @return the buyer
+     */
+    @Override
+    public Object getBuyerByUsername(int position) {
+        return buyerList.getBuyerByUsername(buyers.get(indexes[position]).getUsername());
+    }
+}
@@ -0,0 +1,65 @@
+import benchmark.ResultsOperations;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+/**
+ * The AuctionResultsFixture class implements the operations measured by the results
+ * benchmark: an auction in which every collection is sold to a different buyer.
+ */
+public class AuctionResultsFixture implements ResultsOperations {
+    private static final int SELLER_ID = 1;
+    private static final double BASE_PRICE = 100.0;
+
+    private int size;
+    private BuyerList buyerList;
+    private ArrayList<Buyer> buyers;
+    private Auction auction;
+
+    /**
+     * Creates a set of buyers.
+     *
+     * @param size the number of buyers, and of collections in each auction
+     */
+    @Override
+    public void setUp(int size) {
+        this.size = size;
+        buyerList = new BuyerList();
+        buyers = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Buyer buyer = new Buyer(1_000_000 + id, "bench-buyer" + id, "pass" + id, "Buyer " + id, "", "");
+            buyerList.addBuyer(buyer);
+            buyers.add(buyer);
+        }
+    }
+
+    /**
+     * Opens a new auction with a lot for each of a new set of approved collections, and
+     * places one bid on every lot. The collections are not added to the catalog.
+     *
+     * @param resultsFile the results file of the auction
+     */
+    @Override
+    public void openAuction(Path resultsFile) {
+        auction = new Auction(buyerList, resultsFile.toString());
+        for (int id = 1; id <= size; id++) {
+            auction.openLot(new AntiqueCollection(id, "Collection " + id, "Furniture", 1,
+                    "Good condition", BASE_PRICE, Status.APPROVED, SELLER_ID));
+            auction.placeBid(buyers.get(id - 1).getUsername(), id, BASE_PRICE + id % 1000);
+        }
+    }
+
+    /**
+     * Closes every lot of the auction, selling its collection to the bidder, and saves the
+     * results of the auction.
+     *
+     * @return the auction
+     */
+    @Override
+    public Object saveResultsToFile() {
+        for (int id = 1; id <= size; id++) {
+            auction.closeLot(id);
+        }
+        auction.saveResultsToFile();
+        return auction;
+    }
+}
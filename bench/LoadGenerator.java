@@ -0,0 +1,397 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.JMException;
+
+/**
+ * The LoadGenerator class drives an auction with synthetic bidding at event scale.
+ * It creates sellers, buyers and approved collections through the regular SellerList,
+ * BuyerList and AntiqueCollectionList APIs, opens every collection in a silent auction
+ * and places bids from many client threads at a configurable rate, shaped by a scenario:
+ * <ul>
+ * <li>{@code steady}: bids arrive at a constant rate and are spread over all lots.</li>
+ * <li>{@code burst}: half of the bids arrive in the last tenth of the auction.</li>
+ * <li>{@code hot}: most bids go to a handful of popular lots.</li>
+ * <li>{@code sniping}: lots close one after another and bids target the lots about to close.</li>
+ * </ul>
+ * Every client sends its bids on a fixed schedule whether or not the previous bid has been
+ * answered, and latency is measured from the time a bid was due to be sent, so a stalled
+ * auction shows up as latency instead of silently lowering the offered load. The latencies
+ * measured inside the auction are reported as well, and are shown over JMX during the run.
+ * IDs are reserved in a temporary ID file unless the {@code auction.idFile} system property
+ * is set, so a load run never uses up the IDs of the live system.
+ * <p>
+ * Usage: {@code LoadGenerator [--scenario steady|burst|hot|sniping] [--sellers n] [--buyers n]
+ * [--lots n] [--rate bids per second] [--duration seconds] [--threads n] [--journal]}
+ */
+public class LoadGenerator {
+    private static final double BURST_BID_SHARE = 0.5;
+    private static final double BURST_TIME_SHARE = 0.1;
+    private static final double HOT_LOT_SHARE = 0.01;
+    private static final double HOT_BID_SHARE = 0.8;
+    private static final int SNIPE_WINDOW_LOTS = 3;
+    private static final long MIN_BASE_PRICE_CENTS = 10_000;
+    private static final long MAX_BASE_PRICE_CENTS = 100_000;
+    private static final String ID_FILE_PROPERTY = "auction.idFile";
+
+    private Scenario scenario = Scenario.STEADY;
+    private int sellerCount = 1_000;
+    private int buyerCount = 100_000;
+    private int lotCount = 10_000;
+    private int rate = 50_000;
+    private int durationSeconds = 30;
+    private int threadCount = 64;
+    private boolean journaled;
+
+    private BuyerList buyerList;
+    private Auction auction;
+    private BidJournal journal;
+    private int[] buyerIndexes;
+    private int[] lotIds;
+    private long[] basePricesCents;
+
+    /**
+     * The Scenario enum represents the shapes of bidding the generator can produce.
+     */
+    public enum Scenario {
+        STEADY, BURST, HOT, SNIPING
+    }
+
+    /**
+     * The Client class represents one bidding thread and the results it measured.
+     */
+    private class Client implements Runnable {
+        private final int clientIndex;
+        private final long startNanos;
+        private final long totalBids;
+        private final SplittableRandom random;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final long[] resultCounts = new long[BidResult.values().length];
+        private long lastCompletionNanos;
+
+        /**
+         * Constructs a Client object.
+         *
+         * @param clientIndex the index of the client among all clients
+         * @param startNanos  the time the auction started, from System.nanoTime
+         * @param totalBids   the number of bids sent by all clients together
+         * @param random      the random number generator of the client
+         */
+        private Client(int clientIndex, long startNanos, long totalBids, SplittableRandom random) {
+            this.clientIndex = clientIndex;
+            this.startNanos = startNanos;
+            this.totalBids = totalBids;
+            this.random = random;
+        }
+
+        /**
+         * Sends every bid of this client at its scheduled time.
+         */
+        @Override
+        public void run() {
+            for (long bid = clientIndex; bid < totalBids; bid += threadCount) {
+                long offsetNanos = scheduledOffsetNanos(bid, totalBids);
+                long intendedNanos = startNanos + offsetNanos;
+                long waitNanos;
+                while ((waitNanos = intendedNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+
+                int lot = chooseLot(offsetNanos, random);
+                int buyerIndex = buyerIndexes[random.nextInt(buyerIndexes.length)];
+                long amountCents = basePricesCents[lot] + random.nextLong(basePricesCents[lot] * 2);
+                BidResult result = auction.placeBid(buyerIndex, lotIds[lot], amountCents);
+
+                lastCompletionNanos = System.nanoTime();
+                latencies.record(lastCompletionNanos - intendedNanos);
+                resultCounts[result.ordinal()]++;
+            }
+        }
+    }
+
+    /**
+     * The main method parses the options and runs the load.
+     *
+     * @param args command-line arguments
+     * @throws Exception if the load cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--journal")) {
+                generator.journaled = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.out.println("Missing value after " + option);
+                return;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--scenario":
+                    generator.scenario = Scenario.valueOf(value.toUpperCase());
+                    break;
+                case "--sellers":
+                    generator.sellerCount = Integer.parseInt(value);
+                    break;
+                case "--buyers":
+                    generator.buyerCount = Integer.parseInt(value);
+                    break;
+                case "--lots":
+                    generator.lotCount = Integer.parseInt(value);
+                    break;
+                case "--rate":
+                    generator.rate = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    generator.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    generator.threadCount = Integer.parseInt(value);
+                    break;
+                default:
+                    System.out.println("Unknown option: " + option);
+                    return;
+            }
+        }
+        generator.setUp();
+        generator.run();
+    }
+
+    /**
+     * Creates the sellers, buyers and collections and opens every collection for bidding.
+     *
+     * @throws IOException if the ID file, the results file or the journal cannot be created
+     */
+    private void setUp() throws IOException {
+        if (System.getProperty(ID_FILE_PROPERTY) == null) {
+            System.setProperty(ID_FILE_PROPERTY, tempFile("auction-load-ids").getPath());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        SellerList sellerList = new SellerList();
+        buyerList = new BuyerList();
+        AntiqueCollectionList antiqueCollectionList = AntiqueCollectionList.getInstance();
+
+        ArrayList<Seller> sellers = new ArrayList<>(sellerCount);
+        for (int i = 0; i < sellerCount; i++) {
+            Seller seller = new Seller(IdAllocator.users().nextId(), "load-seller" + i, "pass" + i, "Seller " + i, "", "");
+            if (sellerList.addSeller(seller)) {
+                sellers.add(seller);
+            }
+        }
+        for (int i = 0; i < buyerCount; i++) {
+            buyerList.addBuyer(new Buyer(IdAllocator.users().nextId(), "load-buyer" + i, "pass" + i, "Buyer " + i, "", ""));
+        }
+
+        auction = new Auction(buyerList, tempFile("auction-load-results").getPath());
+        // Each client is expected to bid once every threadCount / rate seconds
+        auction.getMetrics().setExpectedBidIntervalMicros(TimeUnit.SECONDS.toMicros(threadCount) / rate);
+        try {
+            auction.getMetrics().register();
+        } catch (JMException e) {
+            System.out.println("Error registering auction metrics: " + e.getMessage());
+        }
+        if (journaled) {
+            journal = BidJournal.open(tempFile("auction-load-journal").getPath());
+            auction.setJournal(journal);
+        }
+
+        buyerIndexes = new int[buyerCount];
+        for (int i = 0; i < buyerCount; i++) {
+            buyerIndexes[i] = auction.getBuyerIndex().indexOf("load-buyer" + i);
+        }
+
+        lotIds = new int[lotCount];
+        basePricesCents = new long[lotCount];
+        for (int i = 0; i < lotCount; i++) {
+            long basePriceCents = random.nextLong(MIN_BASE_PRICE_CENTS, MAX_BASE_PRICE_CENTS);
+            Seller seller = sellers.get(i % sellers.size());
+            AntiqueCollection collection = new AntiqueCollection(IdAllocator.collections().nextId(), "Lot " + i, "Collectibles", 1,
+                    "Good condition", Money.toDollars(basePriceCents), Status.APPROVED, seller.getUserId());
+            seller.registerCollection(collection);
+            antiqueCollectionList.addCollection(collection);
+            auction.openLot(collection);
+            lotIds[i] = collection.getAntiqueCollectionID();
+            basePricesCents[i] = basePriceCents;
+        }
+    }
+
+    /**
+     * Runs the bidding, closes every lot and reports the results.
+     *
+     * @throws InterruptedException if the generator is interrupted
+     * @throws IOException          if the journal cannot be closed
+     */
+    private void run() throws InterruptedException, IOException {
+        long totalBids = (long) rate * durationSeconds;
+        long durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Scenario %s: %d sellers, %d buyers, %d lots, %d bids/s for %d s on %d threads%s%n",
+                scenario.name().toLowerCase(), sellerCount, buyerCount, lotCount, rate, durationSeconds, threadCount,
+                journaled ? " with journal" : "");
+
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        ScheduledExecutorService closer = scenario == Scenario.SNIPING ? scheduleClosings(startNanos, durationNanos) : null;
+
+        ArrayList<Client> clients = new ArrayList<>(threadCount);
+        ArrayList<Thread> threads = new ArrayList<>(threadCount);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < threadCount; i++) {
+            Client client = new Client(i, startNanos, totalBids, random.split());
+            Thread thread = new Thread(client, "load-client-" + i);
+            clients.add(client);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (closer != null) {
+            closer.shutdown();
+            closer.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        long closeStart = System.nanoTime();
+        for (int lotId : lotIds) {
+            auction.closeLot(lotId);
+        }
+        long closeNanos = System.nanoTime() - closeStart;
+        auction.saveResultsToFile();
+        if (journal != null) {
+            journal.close();
+        }
+
+        report(clients, startNanos, closeNanos);
+    }
+
+    /**
+     * Schedules each lot to close at its own time, spread evenly over the auction.
+     *
+     * @param startNanos    the time the auction starts, from System.nanoTime
+     * @param durationNanos the length of the auction in nanoseconds
+     * @return the scheduler closing the lots
+     */
+    private ScheduledExecutorService scheduleClosings(long startNanos, long durationNanos) {
+        ScheduledExecutorService closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-lot-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int lot = 0; lot < lotCount; lot++) {
+            int lotId = lotIds[lot];
+            long closeNanos = startNanos + closingOffsetNanos(lot, durationNanos) - System.nanoTime();
+            closer.schedule(() -> auction.closeLot(lotId), closeNanos, TimeUnit.NANOSECONDS);
+        }
+        return closer;
+    }
+
+    /**
+     * Gets the time a bid is due, relative to the start of the auction.
+     *
+     * @param bid       the number of the bid among all bids
+     * @param totalBids the number of bids sent by all clients together
+     * @return the time the bid is due in nanoseconds after the start
+     */
+    private long scheduledOffsetNanos(long bid, long totalBids) {
+        long durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        double fraction = (double) bid / totalBids;
+        if (scenario == Scenario.BURST) {
+            // The first half of the bids is spread over most of the auction, the rest over its last moments
+            if (fraction < BURST_BID_SHARE) {
+                return (long) (fraction / BURST_BID_SHARE * (1 - BURST_TIME_SHARE) * durationNanos);
+            }
+            return (long) (((1 - BURST_TIME_SHARE) + (fraction - BURST_BID_SHARE) / (1 - BURST_BID_SHARE) * BURST_TIME_SHARE) * durationNanos);
+        }
+        return (long) (fraction * durationNanos);
+    }
+
+    /**
+     * Gets the time a lot closes in the sniping scenario, relative to the start of the auction.
+     *
+     * @param lot           the index of the lot
+     * @param durationNanos the length of the auction in nanoseconds
+     * @return the time the lot closes in nanoseconds after the start
+     */
+    private long closingOffsetNanos(int lot, long durationNanos) {
+        return durationNanos * (lot + 1) / lotCount;
+    }
+
+    /**
+     * Chooses the lot a bid goes to.
+     *
+     * @param offsetNanos the time the bid is due, relative to the start of the auction
+     * @param random      the random number generator of the client
+     * @return the index of the lot
+     */
+    private int chooseLot(long offsetNanos, SplittableRandom random) {
+        switch (scenario) {
+            case HOT:
+                int hotLots = Math.max(1, (int) (lotCount * HOT_LOT_SHARE));
+                if (random.nextDouble() < HOT_BID_SHARE) {
+                    return random.nextInt(hotLots);
+                }
+                return random.nextInt(lotCount);
+            case SNIPING:
+                // Snipers bid on one of the lots closing next
+                long durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+                int closingNext = (int) Math.min(lotCount - 1, offsetNanos * lotCount / durationNanos);
+                return Math.min(lotCount - 1, closingNext + random.nextInt(SNIPE_WINDOW_LOTS));
+            default:
+                return random.nextInt(lotCount);
+        }
+    }
+
+    /**
+     * Prints the throughput, the results and the latency percentiles of the run.
+     *
+     * @param clients    the clients that sent the bids
+     * @param startNanos the time the auction started, from System.nanoTime
+     * @param closeNanos the time it took to close the remaining lots, in nanoseconds
+     */
+    private void report(ArrayList<Client> clients, long startNanos, long closeNanos) {
+        LatencyHistogram latencies = new LatencyHistogram();
+        long[] resultCounts = new long[BidResult.values().length];
+        long endNanos = startNanos;
+        for (Client client : clients) {
+            latencies.add(client.latencies);
+            for (int i = 0; i < resultCounts.length; i++) {
+                resultCounts[i] += client.resultCounts[i];
+            }
+            endNanos = Math.max(endNanos, client.lastCompletionNanos);
+        }
+
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf("Bids: %d in %.3f s (%.0f bids/s sustained, %d bids/s offered)%n",
+                latencies.getCount(), seconds, latencies.getCount() / seconds, rate);
+        for (BidResult result : BidResult.values()) {
+            if (resultCounts[result.ordinal()] > 0) {
+                System.out.println("  " + result + ": " + resultCounts[result.ordinal()]);
+            }
+        }
+        System.out.printf("Latency (us): mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                latencies.getMean() / 1e3, latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(90) / 1e3,
+                latencies.getValueAtPercentile(99) / 1e3, latencies.getValueAtPercentile(99.9) / 1e3, latencies.getMax() / 1e3);
+        System.out.println("Auction bid latency: " + auction.getMetrics().getBidLatency());
+        System.out.println("Corrected for coordinated omission: " + auction.getMetrics().getCorrectedBidLatency());
+        System.out.printf("Closed remaining lots in %.1f ms; %d collections sold for $%.2f%n", closeNanos / 1e6,
+                auction.getLedger().snapshot().getSalesCount(), Money.toDollars(auction.getLedger().getTotalRevenueCents()));
+    }
+
+    /**
+     * Creates an empty temporary file that is deleted when the generator exits.
+     *
+     * @param prefix the prefix of the file name
+     * @return the temporary file
+     * @throws IOException if the file cannot be created
+     */
+    private static File tempFile(String prefix) throws IOException {
+        File file = File.createTempFile(prefix, ".tmp");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,134 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The AuctionBenchmark class measures the core paths of the auction system at catalog and
+ * user counts from a thousand to a million: placing bids, looking up collections, listing
+ * approved collections, checking logins and looking up buyers. Every fork builds a catalog
+ * and a set of buyers of the measured size. The ID file is kept in a temporary directory,
+ * and each fork reserves enough bid IDs up front that no bid waits for the file to be written.
+ * <p>
+ * Run it with JMH, e.g. {@code mvn -B test-compile exec:exec -Djmh.args="AuctionBenchmark -p size=1000,100000"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g", "-Dauction.idReservationBlocks=2097152"})
+@State(Scope.Benchmark)
+public class AuctionBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private Path workDirectory;
+    private CatalogOperations operations;
+
+    /**
+     * The Cursor class walks each benchmark thread through the random indexes.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        /**
+         * Returns the position of the next random index.
+         *
+         * @return the position of the next random index
+         */
+        private int next() {
+            return position++ & (CatalogOperations.RANDOM_INDEXES - 1);
+        }
+    }
+
+    /**
+     * Builds the catalog and the buyers in a new temporary directory.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Fixtures.createWorkDirectory();
+        operations = Fixtures.create("AuctionCatalogFixture", CatalogOperations.class);
+        operations.setUp(size, workDirectory);
+    }
+
+    /**
+     * Deletes the temporary directory.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.deleteDirectory(workDirectory);
+    }
+
+    /**
+     * Places a bid on a random approved collection from a random buyer.
+     *
+     * @param cursor the random indexes of the benchmark thread
+     * @return the result of the bid
+     */
+    @Benchmark
+    public Object placeBid(Cursor cursor) {
+        return operations.placeBid(cursor.next());
+    }
+
+    /**
+     * Looks up a random collection by its ID.
+     *
+     * @param cursor the random indexes of the benchmark thread
+     * @return the collection
+     */
+    @Benchmark
+    public Object getCollectionById(Cursor cursor) {
+        return operations.getCollectionById(cursor.next());
+    }
+
+    /**
+     * Lists the approved collections.
+     *
+     * @return the approved collections
+     */
+    @Benchmark
+    public Object getApprovedCollections() {
+        return operations.getApprovedCollections();
+    }
+
+    /**
+     * Checks the credentials of a random buyer.
+     *
+     * @param cursor the random indexes of the benchmark thread
+     * @return the authenticated user
+     */
+    @Benchmark
+    public Object login(Cursor cursor) {
+        return operations.login(cursor.next());
+    }
+
+    /**
+     * Looks up a random buyer by username.
+     *
+     * @param cursor the random indexes of the benchmark thread
+     * @return the buyer
+     */
+    @Benchmark
+    public Object getBuyerByUsername(Cursor cursor) {
+        return operations.getBuyerByUsername(cursor.next());
+    }
+}
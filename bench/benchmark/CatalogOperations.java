@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.nio.file.Path;
+
+/**
+ * The CatalogOperations interface represents the operations of the auction system measured
+ * by {@link AuctionBenchmark}. JMH only accepts benchmarks in a named package, while the
+ * auction system lives in the default package, so the operations are implemented by
+ * {@code AuctionCatalogFixture} in the default package. Operations that take a position use
+ * the random index at that position to pick a collection or buyer.
+ */
+public interface CatalogOperations {
+    /**
+     * The number of random indexes the operations cycle through, so the cost of generating
+     * random numbers is not measured.
+     */
+    int RANDOM_INDEXES = 1 << 16;
+
+    /**
+     * Builds a catalog and a set of buyers, and opens a lot for every approved collection.
+     *
+     * @param size          the number of collections and buyers
+     * @param workDirectory the directory the results file is written to
+     */
+    void setUp(int size, Path workDirectory);
+
+    /**
+     * Places a bid on a random approved collection from a random buyer.
+     *
+     * @param position the position of the random index
+     * @return the result of the bid
+     */
+    Object placeBid(int position);
+
+    /**
+     * Looks up a random collection by its ID.
+     *
+     * @param position the position of the random index
+     * @return the collection
+     */
+    Object getCollectionById(int position);
+
+    /**
+     * Lists the approved collections.
+     *
+     * @return the approved collections
+     */
+    Object getApprovedCollections();
+
+    /**
+     * Checks the credentials of a random buyer.
+     *
+     * @param position the position of the random index
+     * @return the authenticated user
+     */
+    Object login(int position);
+
+    /**
+     * Looks up a random buyer by username.
+     *
+     * @param position the position of the random index
+     * @return the buyer
+     */
+    Object getBuyerByUsername(int position);
+}
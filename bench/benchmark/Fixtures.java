@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The Fixtures class creates the fixtures that implement the measured operations in the
+ * default package and manages the temporary directories the benchmarks write to.
+ */
+final class Fixtures {
+    private static final String ID_FILE_PROPERTY = "auction.idFile";
+
+    /**
+     * Private constructor, as the class only has static methods.
+     */
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a fixture of a class in the default package.
+     *
+     * @param className the name of the fixture class
+     * @param type      the interface the fixture implements
+     * @param <T>       the type of the fixture
+     * @return the fixture
+     */
+    static <T> T create(String className, Class<T> type) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create fixture " + className + ": " + e, e);
+        }
+    }
+
+    /**
+     * Creates a temporary directory and keeps the ID file of the auction system in it, so
+     * benchmarks never write to the working directory.
+     *
+     * @return the temporary directory
+     * @throws IOException if the directory cannot be created
+     */
+    static Path createWorkDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("auction-benchmark");
+        System.setProperty(ID_FILE_PROPERTY, directory.resolve("auction_ids.properties").toString());
+        return directory;
+    }
+
+    /**
+     * Deletes a directory and the files in it.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if the directory cannot be deleted
+     */
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
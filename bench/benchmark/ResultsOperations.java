@@ -0,0 +1,34 @@
+package benchmark;
+
+import java.nio.file.Path;
+
+/**
+ * The ResultsOperations interface represents the operations of the auction system measured
+ * by {@link SaveResultsBenchmark}. They are implemented by {@code AuctionResultsFixture} in
+ * the default package, like the {@link CatalogOperations}.
+ */
+public interface ResultsOperations {
+
+    /**
+     * Creates a set of buyers.
+     *
+     * @param size the number of buyers, and of collections in each auction
+     */
+    void setUp(int size);
+
+    /**
+     * Opens a new auction with a lot for each of a new set of approved collections, and
+     * places one bid on every lot.
+     *
+     * @param resultsFile the results file of the auction
+     */
+    void openAuction(Path resultsFile);
+
+    /**
+     * Closes every lot of the auction, selling its collection to the bidder, and saves the
+     * results of the auction.
+     *
+     * @return the auction
+     */
+    Object saveResultsToFile();
+}
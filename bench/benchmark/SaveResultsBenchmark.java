@@ -0,0 +1,94 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SaveResultsBenchmark class measures saving the results of an auction that sells every
+ * collection it holds, at sizes from a thousand to a million collections. Each sale is
+ * written to the results file as its lot closes, so one operation closes every lot and then
+ * calls {@code Auction.saveResultsToFile}. Every operation starts from a new auction with one
+ * bid on each lot and a new results file in a temporary directory.
+ * <p>
+ * Run it with JMH, e.g. {@code mvn -B test-compile exec:exec -Djmh.args="SaveResultsBenchmark -p size=1000"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SaveResultsBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private Path workDirectory;
+    private Path resultsFile;
+    private ResultsOperations operations;
+
+    /**
+     * Creates the buyers in a new temporary directory.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Fixtures.createWorkDirectory();
+        resultsFile = workDirectory.resolve("auction_results.txt");
+        operations = Fixtures.create("AuctionResultsFixture", ResultsOperations.class);
+        operations.setUp(size);
+    }
+
+    /**
+     * Opens a new auction with one bid on every lot.
+     */
+    @Setup(Level.Invocation)
+    public void openAuction() {
+        operations.openAuction(resultsFile);
+    }
+
+    /**
+     * Deletes the results file of the last operation.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown(Level.Invocation)
+    public void deleteResults() throws IOException {
+        Files.deleteIfExists(resultsFile);
+    }
+
+    /**
+     * Deletes the temporary directory.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.deleteDirectory(workDirectory);
+    }
+
+    /**
+     * Closes every lot and saves the results of the auction.
+     *
+     * @return the auction
+     */
+    @Benchmark
+    public Object saveResultsToFile() {
+        return operations.saveResultsToFile();
+    }
+}
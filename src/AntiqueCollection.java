@@ -1,17 +1,28 @@
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * The AntiqueCollection class represents a collection of antiques in the auction system.
+ * Every change made through a setter increases the version of the collection, which tells
+ * the CollectionRenderCache that the rendered text of the collection is out of date.
  */
 public class AntiqueCollection {
+    private static final AtomicIntegerFieldUpdater<AntiqueCollection> VERSION =
+            AtomicIntegerFieldUpdater.newUpdater(AntiqueCollection.class, "version");
+
     private int antiqueCollectionID;
     private String name;
     private String type;
     private int quantity;
     private String conditionDescription;
+    private long conditionDescriptionHandle;
     private double basePrice;
     private Status status;
     private double soldPrice;
     private int sellerID;
     private String buyerUsername;
+    private AntiqueCollectionList antiqueCollectionList;
+    private volatile int version;
 
     /**
      * Constructs an AntiqueCollection object with the specified details.
@@ -30,7 +41,7 @@ public class AntiqueCollection {
         this.name = name;
         this.type = type;
         this.quantity = quantity;
-        this.conditionDescription = conditionDescription;
+        storeConditionDescription(conditionDescription);
         this.basePrice = basePrice;
         this.status = status;
         this.sellerID = sellerID;
@@ -51,7 +62,12 @@ public class AntiqueCollection {
      * @param antiqueCollectionID the new ID of the antique collection
      */
     public void setAntiqueCollectionID(int antiqueCollectionID) {
+        int oldId = this.antiqueCollectionID;
         this.antiqueCollectionID = antiqueCollectionID;
+        VERSION.incrementAndGet(this);
+        if (antiqueCollectionList != null && oldId != antiqueCollectionID) {
+            antiqueCollectionList.idChanged(this, oldId);
+        }
     }
 
     /**
@@ -70,6 +86,9 @@ public class AntiqueCollection {
      */
     public void setName(String name) {
         this.name = name;
+        VERSION.incrementAndGet(this);
+        textChanged();
+        detailsChanged();
     }
 
     /**
@@ -88,6 +107,10 @@ public class AntiqueCollection {
      */
     public void setType(String type) {
         this.type = type;
+        VERSION.incrementAndGet(this);
+        textChanged();
+        facetsChanged();
+        detailsChanged();
     }
 
     /**
@@ -106,6 +129,8 @@ public class AntiqueCollection {
      */
     public void setQuantity(int quantity) {
         this.quantity = quantity;
+        VERSION.incrementAndGet(this);
+        detailsChanged();
     }
 
     /**
@@ -114,6 +139,9 @@ public class AntiqueCollection {
      * @return the condition description of the antique collection
      */
     public String getConditionDescription() {
+        if (conditionDescriptionHandle != TextStore.NO_HANDLE) {
+            return TextStore.getInstance().read(conditionDescriptionHandle);
+        }
         return conditionDescription;
     }
 
@@ -123,7 +151,49 @@ public class AntiqueCollection {
      * @param conditionDescription the new condition description of the antique collection
      */
     public void setConditionDescription(String conditionDescription) {
-        this.conditionDescription = conditionDescription;
+        storeConditionDescription(conditionDescription);
+        VERSION.incrementAndGet(this);
+        textChanged();
+        detailsChanged();
+    }
+
+    /**
+     * Notifies the list containing the antique collection that one of the details a seller can edit changed.
+     */
+    private void detailsChanged() {
+        if (antiqueCollectionList != null) {
+            antiqueCollectionList.detailsChanged(this);
+        }
+    }
+
+    /**
+     * Notifies the list containing the antique collection that its type or a price changed.
+     */
+    private void facetsChanged() {
+        if (antiqueCollectionList != null) {
+            antiqueCollectionList.facetsChanged(this);
+        }
+    }
+
+    /**
+     * Notifies the list containing the antique collection that its text changed.
+     */
+    private void textChanged() {
+        if (antiqueCollectionList != null) {
+            antiqueCollectionList.textChanged(this);
+        }
+    }
+
+    /**
+     * Keeps a short condition description on the heap and moves a long one to the text store.
+     *
+     * @param conditionDescription the condition description of the antique collection
+     */
+    private void storeConditionDescription(String conditionDescription) {
+        TextStore textStore = TextStore.getInstance();
+        long handle = textStore.shouldStore(conditionDescription) ? textStore.append(conditionDescription) : TextStore.NO_HANDLE;
+        this.conditionDescription = handle == TextStore.NO_HANDLE ? conditionDescription : null;
+        this.conditionDescriptionHandle = handle;
     }
 
     /**
@@ -142,6 +212,9 @@ public class AntiqueCollection {
      */
     public void setBasePrice(double basePrice) {
         this.basePrice = basePrice;
+        VERSION.incrementAndGet(this);
+        facetsChanged();
+        detailsChanged();
     }
 
     /**
@@ -159,7 +232,12 @@ public class AntiqueCollection {
      * @param status the new status of the antique collection
      */
     public void setStatus(Status status) {
+        Status oldStatus = this.status;
         this.status = status;
+        VERSION.incrementAndGet(this);
+        if (antiqueCollectionList != null && oldStatus != status) {
+            antiqueCollectionList.statusChanged(this, oldStatus);
+        }
     }
 
     /**
@@ -178,6 +256,8 @@ public class AntiqueCollection {
      */
     public void setSoldPrice(double soldPrice) {
         this.soldPrice = soldPrice;
+        VERSION.incrementAndGet(this);
+        facetsChanged();
     }
 
     /**
@@ -195,7 +275,12 @@ public class AntiqueCollection {
      * @param sellerID the new ID of the seller who owns the antique collection
      */
     public void setSellerID(int sellerID) {
+        int oldSellerID = this.sellerID;
         this.sellerID = sellerID;
+        VERSION.incrementAndGet(this);
+        if (antiqueCollectionList != null && oldSellerID != sellerID) {
+            antiqueCollectionList.sellerChanged(this, oldSellerID);
+        }
     }
 
     /**
@@ -214,6 +299,44 @@ public class AntiqueCollection {
      */
     public void setBuyerUsername(String buyerUsername) {
         this.buyerUsername = buyerUsername;
+        VERSION.incrementAndGet(this);
+    }
+
+    /**
+     * Marks the antique collection as sold to a buyer. The status, sold price and buyer are set
+     * at once, and the list containing the collection reindexes it later without the caller
+     * waiting for the lock on the list.
+     *
+     * @param soldPrice     the price the antique collection was sold for
+     * @param buyerUsername the username of the buyer who purchased the antique collection
+     */
+    public void markSold(double soldPrice, String buyerUsername) {
+        Status oldStatus = this.status;
+        this.status = Status.SOLD;
+        this.soldPrice = soldPrice;
+        this.buyerUsername = buyerUsername;
+        VERSION.incrementAndGet(this);
+        if (antiqueCollectionList != null) {
+            antiqueCollectionList.collectionSold(this, oldStatus);
+        }
+    }
+
+    /**
+     * Gets the version of the antique collection, which changes whenever one of its details is set.
+     *
+     * @return the version of the antique collection
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the list that indexes this antique collection, so that the list is notified of changes.
+     *
+     * @param antiqueCollectionList the list containing the antique collection, or null if it was removed
+     */
+    void setAntiqueCollectionList(AntiqueCollectionList antiqueCollectionList) {
+        this.antiqueCollectionList = antiqueCollectionList;
     }
 
     /**
@@ -223,13 +346,6 @@ public class AntiqueCollection {
      */
     @Override
     public String toString() {
-        return "Collection ID: " + antiqueCollectionID +
-                ", Name: " + name +
-                ", Type: " + type +
-                ", Quantity: " + quantity +
-                ", Condition Description: " + conditionDescription +
-                ", Base Price: " + basePrice +
-                ", Status: " + status +
-                ", Sold Price: " + soldPrice;
+        return new String(CollectionRenderCache.getInstance().render(this, CollectionRenderCache.View.SUMMARY), Charset.defaultCharset());
     }
 }
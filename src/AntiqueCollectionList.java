@@ -1,18 +1,75 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * The AntiqueCollectionList class represents a singleton list of antique collections.
  * It provides methods to add, remove, and retrieve antique collections based on their status or ID.
+ * Collections are stored by ID in the order they were added, so removing one does not scan
+ * the catalog. They are also indexed by status, and the status index is kept up to date
+ * whenever the status of a collection in the list changes. The status index is sorted by ID,
+ * so the catalog can be listed a page at a time from a cursor. Collections are further indexed
+ * by type and price for browsing by category and budget, and by the seller who owns them.
+ * Pending collections wait in a review queue in the order they were submitted. Approved
+ * collections are also indexed by the words of their name, type and condition description
+ * for buyers to search. Collections sold by the auction are queued and reindexed the next
+ * time the list is used, so lots settling on different threads do not wait for each other.
  */
 public class AntiqueCollectionList {
     private static AntiqueCollectionList instance;
-    private ArrayList<AntiqueCollection> antiqueCollections;
+    private LinkedHashMap<Integer, AntiqueCollection> collectionsById;
+    private EnumMap<Status, TreeMap<Integer, AntiqueCollection>> collectionsByStatus;
+    private HashMap<Integer, TreeMap<Integer, AntiqueCollection>> collectionsBySeller;
+    private LinkedHashSet<AntiqueCollection> pendingReview;
+    private CollectionSearchIndex searchIndex;
+    private CollectionFacetIndex facetIndex;
+    private ConcurrentLinkedQueue<StatusChange> soldCollections;
+    private BidJournal journal;
+
+    /**
+     * A change of status of an antique collection that has not been applied to the indexes yet.
+     */
+    private static class StatusChange {
+        private final AntiqueCollection collection;
+        private final Status oldStatus;
+        private final Status newStatus;
+
+        /**
+         * Constructs a StatusChange for an antique collection.
+         *
+         * @param collection the antique collection whose status changed
+         * @param oldStatus  the previous status of the antique collection
+         * @param newStatus  the new status of the antique collection
+         */
+        private StatusChange(AntiqueCollection collection, Status oldStatus, Status newStatus) {
+            this.collection = collection;
+            this.oldStatus = oldStatus;
+            this.newStatus = newStatus;
+        }
+    }
 
     /**
      * Private constructor to create the singleton instance of AntiqueCollectionList.
      */
     private AntiqueCollectionList() {
-        antiqueCollections = new ArrayList<>();
+        collectionsById = new LinkedHashMap<>();
+        collectionsByStatus = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            collectionsByStatus.put(status, new TreeMap<>());
+        }
+        collectionsBySeller = new HashMap<>();
+        pendingReview = new LinkedHashSet<>();
+        searchIndex = new CollectionSearchIndex();
+        facetIndex = new CollectionFacetIndex();
+        soldCollections = new ConcurrentLinkedQueue<>();
     }
 
     /**
@@ -20,7 +77,7 @@ public class AntiqueCollectionList {
      *
      * @return the singleton instance of AntiqueCollectionList
      */
-    public static AntiqueCollectionList getInstance() {
+    public static synchronized AntiqueCollectionList getInstance() {
         if (instance == null) {
             instance = new AntiqueCollectionList();
         }
@@ -28,12 +85,64 @@ public class AntiqueCollectionList {
     }
 
     /**
-     * Adds an antique collection to the list.
+     * Sets the journal that added and removed collections and status changes of collections
+     * in the list are written to.
+     *
+     * @param journal the bid journal, or null to stop journaling
+     */
+    public synchronized void setJournal(BidJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Adds an antique collection to the list. Collection IDs allocated later are kept
+     * above the ID of the added collection. A collection whose ID is already in use is
+     * not added.
      *
      * @param collection the antique collection to add
+     * @return true if the collection was added, false if its ID is already in use
+     */
+    public synchronized boolean addCollection(AntiqueCollection collection) {
+        applySoldCollections();
+        IdAllocator.collections().ensureAbove(collection.getAntiqueCollectionID());
+        if (collectionsById.putIfAbsent(collection.getAntiqueCollectionID(), collection) != null) {
+            return false;
+        }
+        collection.setAntiqueCollectionList(this);
+        if (collection.getStatus() != null) {
+            collectionsByStatus.get(collection.getStatus()).put(collection.getAntiqueCollectionID(), collection);
+        }
+        collectionsBySeller.computeIfAbsent(collection.getSellerID(), sellerId -> new TreeMap<>())
+                .put(collection.getAntiqueCollectionID(), collection);
+        if (collection.getStatus() == Status.PENDING) {
+            pendingReview.add(collection);
+        }
+        if (collection.getStatus() == Status.APPROVED) {
+            searchIndex.add(collection);
+        }
+        facetIndex.update(collection);
+        if (journal != null) {
+            journal.logCollection(collection);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a batch of new antique collections to the list at once. A collection whose ID is
+     * already in use is skipped instead of being added.
+     *
+     * @param collections the antique collections to add
+     * @return the collections that were skipped because their ID is already in use
      */
-    public void addCollection(AntiqueCollection collection) {
-        antiqueCollections.add(collection);
+    public synchronized List<AntiqueCollection> addNewCollections(List<AntiqueCollection> collections) {
+        applySoldCollections();
+        ArrayList<AntiqueCollection> skipped = new ArrayList<>();
+        for (AntiqueCollection collection : collections) {
+            if (!addCollection(collection)) {
+                skipped.add(collection);
+            }
+        }
+        return skipped;
     }
 
     /**
@@ -42,13 +151,7 @@ public class AntiqueCollectionList {
      * @return a list of approved antique collections
      */
     public ArrayList<AntiqueCollection> getApprovedCollections() {
-        ArrayList<AntiqueCollection> approvedCollections = new ArrayList<>();
-        for (AntiqueCollection collection : antiqueCollections) {
-            if (collection.getStatus().equals(Status.APPROVED)) {
-                approvedCollections.add(collection);
-            }
-        }
-        return approvedCollections;
+        return getCollectionsByStatus(Status.APPROVED);
     }
 
     /**
@@ -57,14 +160,52 @@ public class AntiqueCollectionList {
      * @param status the status of the antique collections to retrieve
      * @return a list of antique collections with the specified status
      */
-    public ArrayList<AntiqueCollection> getCollectionsByStatus(Status status) {
-        ArrayList<AntiqueCollection> result = new ArrayList<>();
-        for (AntiqueCollection collection : antiqueCollections) {
-            if (collection.getStatus() == status) {
-                result.add(collection);
+    public synchronized ArrayList<AntiqueCollection> getCollectionsByStatus(Status status) {
+        applySoldCollections();
+        return new ArrayList<>(collectionsByStatus.get(status).values());
+    }
+
+    /**
+     * Gets a page of antique collections in ID order.
+     *
+     * @param status   the status of the antique collections to list, or null to list collections of any status
+     * @param cursor   the cursor of the previous page, or CatalogPage.START for the first page
+     * @param pageSize the maximum number of collections on the page
+     * @return the page of antique collections with an ID above the cursor
+     */
+    public synchronized CatalogPage getPage(Status status, int cursor, int pageSize) {
+        applySoldCollections();
+        // One collection more than the page holds tells whether there is a next page
+        ArrayList<AntiqueCollection> collections = new ArrayList<>();
+        for (Status listedStatus : Status.values()) {
+            if (status != null && status != listedStatus) {
+                continue;
             }
+            int taken = 0;
+            for (AntiqueCollection collection : collectionsByStatus.get(listedStatus).tailMap(cursor, false).values()) {
+                if (taken++ > pageSize) {
+                    break;
+                }
+                collections.add(collection);
+            }
+        }
+        if (status == null) {
+            collections.sort(Comparator.comparingInt(AntiqueCollection::getAntiqueCollectionID));
         }
-        return result;
+
+        boolean hasNext = collections.size() > pageSize;
+        return new CatalogPage(new ArrayList<>(collections.subList(0, Math.min(pageSize, collections.size()))), hasNext);
+    }
+
+    /**
+     * Checks if there are any antique collections with the specified status.
+     *
+     * @param status the status to check
+     * @return true if at least one antique collection has the specified status, otherwise false
+     */
+    public synchronized boolean hasCollectionsWithStatus(Status status) {
+        applySoldCollections();
+        return !collectionsByStatus.get(status).isEmpty();
     }
 
     /**
@@ -72,17 +213,187 @@ public class AntiqueCollectionList {
      *
      * @param antiqueCollection the antique collection to remove
      */
-    public void removeCollection(AntiqueCollection antiqueCollection) {
-        antiqueCollections.remove(antiqueCollection);
+    public synchronized void removeCollection(AntiqueCollection antiqueCollection) {
+        applySoldCollections();
+        if (!collectionsById.remove(antiqueCollection.getAntiqueCollectionID(), antiqueCollection)) {
+            return;
+        }
+        antiqueCollection.setAntiqueCollectionList(null);
+        if (antiqueCollection.getStatus() != null) {
+            collectionsByStatus.get(antiqueCollection.getStatus()).remove(antiqueCollection.getAntiqueCollectionID());
+        }
+        removeFromSeller(antiqueCollection.getSellerID(), antiqueCollection.getAntiqueCollectionID(), antiqueCollection);
+        pendingReview.remove(antiqueCollection);
+        searchIndex.remove(antiqueCollection);
+        facetIndex.remove(antiqueCollection);
+        if (journal != null) {
+            journal.logDeletion(antiqueCollection);
+        }
+        CollectionRenderCache.getInstance().invalidate(antiqueCollection);
+    }
+
+    /**
+     * Gets the pending antique collections that have waited longest for review.
+     *
+     * @param limit the maximum number of collections to return
+     * @return the pending collections in the order they were submitted
+     */
+    public synchronized ArrayList<AntiqueCollection> getPendingReview(int limit) {
+        applySoldCollections();
+        ArrayList<AntiqueCollection> collections = new ArrayList<>(Math.min(limit, pendingReview.size()));
+        for (AntiqueCollection collection : pendingReview) {
+            if (collections.size() >= limit) {
+                break;
+            }
+            collections.add(collection);
+        }
+        return collections;
+    }
+
+    /**
+     * Gets the number of antique collections waiting for review.
+     *
+     * @return the number of pending collections
+     */
+    public synchronized int getPendingReviewCount() {
+        applySoldCollections();
+        return pendingReview.size();
+    }
+
+    /**
+     * Approves pending antique collections and sets their base prices in one pass.
+     *
+     * @param basePrices the base price of each collection to approve, by collection ID
+     * @return the IDs of the collections that were not found or not pending, which are left unchanged
+     */
+    public synchronized List<Integer> approveCollections(Map<Integer, Double> basePrices) {
+        applySoldCollections();
+        ArrayList<Integer> rejectedIds = new ArrayList<>();
+        for (Map.Entry<Integer, Double> basePrice : basePrices.entrySet()) {
+            AntiqueCollection collection = collectionsById.get(basePrice.getKey());
+            if (collection == null || collection.getStatus() != Status.PENDING) {
+                rejectedIds.add(basePrice.getKey());
+                continue;
+            }
+            collection.setBasePrice(basePrice.getValue());
+            collection.setStatus(Status.APPROVED);
+        }
+        return rejectedIds;
+    }
+
+    /**
+     * Disapproves pending antique collections in one pass.
+     *
+     * @param ids the IDs of the collections to disapprove
+     * @return the IDs of the collections that were not found or not pending, which are left unchanged
+     */
+    public synchronized List<Integer> disapproveCollections(Collection<Integer> ids) {
+        applySoldCollections();
+        ArrayList<Integer> rejectedIds = new ArrayList<>();
+        for (int id : ids) {
+            AntiqueCollection collection = collectionsById.get(id);
+            if (collection == null || collection.getStatus() != Status.PENDING) {
+                rejectedIds.add(id);
+                continue;
+            }
+            collection.setStatus(Status.DISAPPROVED);
+        }
+        return rejectedIds;
+    }
+
+    /**
+     * Deletes an antique collection of a seller from the list. Sold collections are kept,
+     * since their sale has already been recorded.
+     *
+     * @param sellerId     the ID of the seller deleting the collection
+     * @param collectionId the ID of the antique collection to delete
+     * @return the deleted antique collection
+     * @throws IllegalArgumentException if the seller has no collection with the ID
+     * @throws IllegalStateException    if the collection has been sold
+     */
+    public synchronized AntiqueCollection deleteCollection(int sellerId, int collectionId) {
+        applySoldCollections();
+        AntiqueCollection collection = collectionsById.get(collectionId);
+        if (collection == null || collection.getSellerID() != sellerId) {
+            throw new IllegalArgumentException("Collection not found.");
+        }
+        if (collection.getStatus() == Status.SOLD) {
+            throw new IllegalStateException("Sold collections cannot be deleted.");
+        }
+        removeCollection(collection);
+        return collection;
+    }
+
+    /**
+     * Gets the antique collections owned by a seller.
+     *
+     * @param sellerId the ID of the seller
+     * @return the seller's antique collections in ID order
+     */
+    public synchronized ArrayList<AntiqueCollection> getCollectionsBySeller(int sellerId) {
+        applySoldCollections();
+        TreeMap<Integer, AntiqueCollection> collections = collectionsBySeller.get(sellerId);
+        return collections == null ? new ArrayList<>() : new ArrayList<>(collections.values());
+    }
+
+    /**
+     * Searches the approved antique collections for keywords in their name, type and condition description.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of results
+     * @return the matching collections, most relevant first
+     */
+    public List<CollectionSearchIndex.Result> search(String query, int limit) {
+        flushSoldCollections();
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Finds the antique collections with a status and type whose base price is within a range.
+     *
+     * @param status       the status of the antique collections
+     * @param type         the type of the antique collections, ignoring case, or null for any type
+     * @param minPrice     the lowest base price
+     * @param maxPrice     the highest base price
+     * @param highestFirst whether to list the most expensive collections first instead of the cheapest
+     * @param limit        the maximum number of collections to return
+     * @return the matching collections sorted by base price
+     */
+    public List<AntiqueCollection> findCollections(Status status, String type, double minPrice, double maxPrice, boolean highestFirst, int limit) {
+        flushSoldCollections();
+        return facetIndex.find(status, type, minPrice, maxPrice, highestFirst, limit);
+    }
+
+    /**
+     * Counts the antique collections of each type with a status.
+     *
+     * @param status the status of the antique collections
+     * @return the number of collections by type, sorted by type
+     */
+    public Map<String, Integer> getTypeCounts(Status status) {
+        flushSoldCollections();
+        return facetIndex.getTypeCounts(status);
+    }
+
+    /**
+     * Finds the sold antique collections that fetched the highest prices.
+     *
+     * @param limit the maximum number of collections to return
+     * @return the sold collections, highest sold price first
+     */
+    public List<AntiqueCollection> getTopSales(int limit) {
+        flushSoldCollections();
+        return facetIndex.getTopSales(limit);
     }
 
     /**
-     * Gets the list of all antique collections.
+     * Gets a list of all antique collections in the order they were added.
      *
-     * @return the list of all antique collections
+     * @return a list of all antique collections
      */
-    public ArrayList<AntiqueCollection> getAntiqueCollections() {
-        return antiqueCollections;
+    public synchronized ArrayList<AntiqueCollection> getAntiqueCollections() {
+        applySoldCollections();
+        return new ArrayList<>(collectionsById.values());
     }
 
     /**
@@ -91,20 +402,210 @@ public class AntiqueCollectionList {
      * @param id the ID of the antique collection to retrieve
      * @return the antique collection with the specified ID, or null if not found
      */
-    public AntiqueCollection getCollectionById(int id) {
-        for (AntiqueCollection antiqueCollection : antiqueCollections) {
-            if (antiqueCollection.getAntiqueCollectionID() == id) {
-                return antiqueCollection;
+    public synchronized AntiqueCollection getCollectionById(int id) {
+        applySoldCollections();
+        return collectionsById.get(id);
+    }
+
+    /**
+     * Checks if an antique collection with the specified ID exists in the list.
+     *
+     * @param id the ID to check
+     * @return true if the ID is already used, otherwise false
+     */
+    public synchronized boolean containsId(int id) {
+        applySoldCollections();
+        return collectionsById.containsKey(id);
+    }
+
+    /**
+     * Updates the status index after the status of an antique collection in the list has changed.
+     *
+     * @param collection the antique collection whose status changed
+     * @param oldStatus  the previous status of the antique collection
+     */
+    synchronized void statusChanged(AntiqueCollection collection, Status oldStatus) {
+        applySoldCollections();
+        if (collectionsById.get(collection.getAntiqueCollectionID()) != collection) {
+            return;
+        }
+        reindexStatus(collection, oldStatus, collection.getStatus());
+        if (journal != null) {
+            journal.logStatus(collection);
+        }
+    }
+
+    /**
+     * Queues an antique collection in the list that has just been sold, to be reindexed the next
+     * time the list is used. The sale is not journaled here, since the auction writes a SALE
+     * record carrying the buyer and price, and recovery restores the status from that record.
+     *
+     * @param collection the antique collection that was sold
+     * @param oldStatus  the status of the antique collection before it was sold
+     */
+    void collectionSold(AntiqueCollection collection, Status oldStatus) {
+        soldCollections.add(new StatusChange(collection, oldStatus, Status.SOLD));
+    }
+
+    /**
+     * Reindexes the antique collections sold since the list was last used. Must be called
+     * while holding the lock on the list.
+     */
+    private void applySoldCollections() {
+        StatusChange change;
+        while ((change = soldCollections.poll()) != null) {
+            if (collectionsById.get(change.collection.getAntiqueCollectionID()) == change.collection) {
+                reindexStatus(change.collection, change.oldStatus, change.newStatus);
             }
         }
-        return null; // Collection not found
+    }
+
+    /**
+     * Reindexes sold antique collections that are still queued, for the methods that read the
+     * indexes without holding the lock on the list.
+     */
+    private void flushSoldCollections() {
+        if (!soldCollections.isEmpty()) {
+            synchronized (this) {
+                applySoldCollections();
+            }
+        }
+    }
+
+    /**
+     * Moves an antique collection in the list from the indexes of its old status to those of its new status.
+     *
+     * @param collection the antique collection whose status changed
+     * @param oldStatus  the previous status of the antique collection
+     * @param newStatus  the new status of the antique collection
+     */
+    private void reindexStatus(AntiqueCollection collection, Status oldStatus, Status newStatus) {
+        if (oldStatus != null) {
+            collectionsByStatus.get(oldStatus).remove(collection.getAntiqueCollectionID());
+        }
+        if (newStatus != null) {
+            collectionsByStatus.get(newStatus).put(collection.getAntiqueCollectionID(), collection);
+        }
+        if (newStatus == Status.PENDING) {
+            pendingReview.add(collection);
+        } else if (oldStatus == Status.PENDING) {
+            pendingReview.remove(collection);
+        }
+        if (newStatus == Status.APPROVED) {
+            searchIndex.add(collection);
+        } else if (oldStatus == Status.APPROVED) {
+            searchIndex.remove(collection);
+        }
+        facetIndex.update(collection);
+    }
+
+    /**
+     * Updates the search index after the name, type or condition description of an antique
+     * collection in the list has changed.
+     *
+     * @param collection the antique collection whose text changed
+     */
+    synchronized void textChanged(AntiqueCollection collection) {
+        applySoldCollections();
+        if (collectionsById.get(collection.getAntiqueCollectionID()) == collection && collection.getStatus() == Status.APPROVED) {
+            searchIndex.add(collection);
+        }
+    }
+
+    /**
+     * Updates the ID and status indexes after the ID of an antique collection in the list has changed.
+     *
+     * @param collection the antique collection whose ID changed
+     * @param oldId      the previous ID of the antique collection
+     */
+    synchronized void idChanged(AntiqueCollection collection, int oldId) {
+        applySoldCollections();
+        if (!collectionsById.remove(oldId, collection)) {
+            return;
+        }
+        boolean reindexed = collectionsById.putIfAbsent(collection.getAntiqueCollectionID(), collection) == null;
+        if (collection.getStatus() != null) {
+            collectionsByStatus.get(collection.getStatus()).remove(oldId, collection);
+        }
+        removeFromSeller(collection.getSellerID(), oldId, collection);
+        if (!reindexed) {
+            // Another collection already has the new ID, so this one is no longer in the list
+            collection.setAntiqueCollectionList(null);
+            pendingReview.remove(collection);
+            searchIndex.remove(collection);
+            facetIndex.remove(collection);
+            return;
+        }
+
+        if (collection.getStatus() != null) {
+            collectionsByStatus.get(collection.getStatus()).put(collection.getAntiqueCollectionID(), collection);
+        }
+        collectionsBySeller.computeIfAbsent(collection.getSellerID(), sellerId -> new TreeMap<>())
+                .put(collection.getAntiqueCollectionID(), collection);
+        facetIndex.update(collection);
+    }
+
+    /**
+     * Updates the ownership index after the seller of an antique collection in the list has changed.
+     *
+     * @param collection  the antique collection whose seller changed
+     * @param oldSellerId the ID of the previous seller of the antique collection
+     */
+    synchronized void sellerChanged(AntiqueCollection collection, int oldSellerId) {
+        applySoldCollections();
+        if (collectionsById.get(collection.getAntiqueCollectionID()) != collection) {
+            return;
+        }
+        removeFromSeller(oldSellerId, collection.getAntiqueCollectionID(), collection);
+        collectionsBySeller.computeIfAbsent(collection.getSellerID(), sellerId -> new TreeMap<>())
+                .put(collection.getAntiqueCollectionID(), collection);
+    }
+
+    /**
+     * Removes an antique collection from the collections of a seller in the ownership index.
+     *
+     * @param sellerId     the ID of the seller the collection is indexed under
+     * @param collectionId the ID the collection is indexed with
+     * @param collection   the antique collection
+     */
+    private void removeFromSeller(int sellerId, int collectionId, AntiqueCollection collection) {
+        TreeMap<Integer, AntiqueCollection> collections = collectionsBySeller.get(sellerId);
+        if (collections != null && collections.remove(collectionId, collection) && collections.isEmpty()) {
+            collectionsBySeller.remove(sellerId);
+        }
+    }
+
+    /**
+     * Journals the details of an antique collection in the list after its name, type, quantity,
+     * condition description or base price has changed, so the edit survives a restart.
+     *
+     * @param collection the antique collection that was edited
+     */
+    synchronized void detailsChanged(AntiqueCollection collection) {
+        applySoldCollections();
+        if (journal != null && collectionsById.get(collection.getAntiqueCollectionID()) == collection) {
+            journal.logDetails(collection);
+        }
+    }
+
+    /**
+     * Updates the type and price indexes after the type, base price or sold price of an
+     * antique collection in the list has changed.
+     *
+     * @param collection the antique collection that changed
+     */
+    synchronized void facetsChanged(AntiqueCollection collection) {
+        applySoldCollections();
+        if (collectionsById.get(collection.getAntiqueCollectionID()) == collection) {
+            facetIndex.update(collection);
+        }
     }
 
     /**
      * Displays the names of all antique collections in the list.
      */
     public void displayCollections() {
-        for (AntiqueCollection antiqueCollection : antiqueCollections) {
+        for (AntiqueCollection antiqueCollection : getAntiqueCollections()) {
             System.out.println(antiqueCollection.getName());
         }
     }
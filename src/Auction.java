@@ -1,8 +1,18 @@
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Auction class represents the auction process in the auction system.
@@ -10,11 +20,25 @@ import java.util.Scanner;
  */
 public class Auction {
     private ArrayList<AntiqueCollection> antiqueCollections;
-    private ArrayList<Bid> bids;
-    private ArrayList<AntiqueCollection> soldCollections;
+    private BidStore bidStore;
+    private ConcurrentHashMap<Integer, AuctionLot> openLots;
+    private ConcurrentHashMap<Integer, Integer> recoveredLeadingBids;
+    private HashMap<Integer, Integer> recoveredBidSlots;
+    private HashMap<Integer, ArrayList<Integer>> recoveredSlotsByCollection;
+    private ConcurrentLinkedQueue<AntiqueCollection> soldCollections;
     private BuyerList buyerList;
-    private double totalRevenue;
+    private Ledger ledger;
+    private ScheduledExecutorService lotScheduler;
+    private ArrayList<ScheduledFuture<?>> lotClosings;
+    private CountDownLatch lotsRemaining;
+    private BidJournal journal;
+    private AuctionResultsWriter resultsWriter;
+    private AuctionMetrics metrics;
     private static final String AUCTION_RESULTS_FILE = "auction_results.txt";
+    private static final int LOT_WORKERS = Runtime.getRuntime().availableProcessors();
+    private static final String CLOSING_INTERVAL_PROPERTY = "auction.silentClosingIntervalMillis";
+    private static final String BID_SERVER_PORT_PROPERTY = "auction.bidServerPort";
+    private static final long INPUT_POLL_MILLIS = 100;
 
     /**
      * Constructs an Auction object with the specified list of buyers.
@@ -22,11 +46,37 @@ public class Auction {
      * @param buyerList the list of buyers participating in the auction
      */
     public Auction(BuyerList buyerList) {
+        this(buyerList, AUCTION_RESULTS_FILE);
+    }
+
+    /**
+     * Constructs an Auction object with the specified list of buyers that writes its
+     * results to the specified file.
+     *
+     * @param buyerList   the list of buyers participating in the auction
+     * @param resultsFile the name of the results file
+     */
+    public Auction(BuyerList buyerList, String resultsFile) {
         this.antiqueCollections = new ArrayList<>();
-        this.bids = new ArrayList<>();
-        this.soldCollections = new ArrayList<>();
+        this.bidStore = new BidStore(buyerList.getBuyerIndex());
+        this.openLots = new ConcurrentHashMap<>();
+        this.recoveredLeadingBids = new ConcurrentHashMap<>();
+        this.recoveredBidSlots = new HashMap<>();
+        this.recoveredSlotsByCollection = new HashMap<>();
+        this.soldCollections = new ConcurrentLinkedQueue<>();
         this.buyerList = buyerList;
-        this.totalRevenue = 0.0;
+        this.ledger = buyerList.getLedger();
+        this.resultsWriter = new AuctionResultsWriter(resultsFile);
+        this.metrics = new AuctionMetrics();
+    }
+
+    /**
+     * Sets the journal that accepted bids and sales are written to.
+     *
+     * @param journal the bid journal, or null to stop journaling
+     */
+    public void setJournal(BidJournal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -38,11 +88,60 @@ public class Auction {
         antiqueCollections.addAll(collections);
 
         Scanner scanner = new Scanner(System.in);
-        System.out.println("Do you want to start the auction? Type 'yes' to begin.");
+        System.out.println("Do you want to start the auction? Type 'yes' to begin, or 'silent' to open all collections at once.");
         String start = scanner.nextLine();
 
         if (start.equalsIgnoreCase("yes")) {
+            BidServer bidServer = startBidServer();
             openBidding();
+            stopBidServer(bidServer);
+        } else if (start.equalsIgnoreCase("silent")) {
+            System.out.print("Enter the bidding time in minutes: ");
+            try {
+                long minutes = Long.parseLong(scanner.nextLine().trim());
+                BidServer bidServer = startBidServer();
+                openSilentBidding(TimeUnit.MINUTES.toMillis(minutes));
+                stopBidServer(bidServer);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a valid number.");
+            }
+        }
+    }
+
+    /**
+     * Starts accepting bids over the network if a port is set in the
+     * {@code auction.bidServerPort} system property.
+     *
+     * @return the started bid server, or null if no port is set or the server could not be started
+     */
+    private BidServer startBidServer() {
+        Integer port = Integer.getInteger(BID_SERVER_PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+        try {
+            BidServer bidServer = BidServer.start(this, port);
+            System.out.println("Accepting network bids on port " + bidServer.getPort() + ".");
+            return bidServer;
+        } catch (IOException e) {
+            System.out.println("Error starting bid server: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stops accepting bids over the network.
+     *
+     * @param bidServer the bid server to stop, or null if none was started
+     */
+    private void stopBidServer(BidServer bidServer) {
+        if (bidServer == null) {
+            return;
+        }
+        try {
+            bidServer.close();
+        } catch (IOException e) {
+            System.out.println("Error stopping bid server: " + e.getMessage());
         }
     }
 
@@ -51,23 +150,23 @@ public class Auction {
      */
     private void openBidding() {
         Scanner scanner = new Scanner(System.in);
+        BidCommandParser parser = new BidCommandParser(getBuyerIndex());
 
         for (AntiqueCollection collection : antiqueCollections) {
-            if (collection.getStatus() == Status.SOLD) {
+            if (!openLot(collection)) {
                 continue; // Skip already sold collections
             }
 
             System.out.println("Bidding for Collection ID: " + collection.getAntiqueCollectionID());
             System.out.println(collection);
 
-            Bid highestBid = null;
-
             while (true) {
                 System.out.println("Buyers can place bids. Type 'NEXT' to proceed to the next collection or 'END' to finish the auction.");
                 System.out.print("Enter bid (format: [username] bids [amount], e.g., 'buyer1 bids 200.00'): ");
                 String input = scanner.nextLine();
 
                 if ("NEXT".equalsIgnoreCase(input)) {
+                    Bid highestBid = closeLot(collection.getAntiqueCollectionID());
                     if (highestBid != null) {
                         System.out.println("-------------------------------------");
                         System.out.println("Collection sold!!! Purchased by: " + highestBid.getBuyerUsername() + " for $" + highestBid.getAmount());
@@ -75,95 +174,536 @@ public class Auction {
                     }
                     break;
                 } else if ("END".equalsIgnoreCase(input)) {
+                    abandonLot(collection.getAntiqueCollectionID());
                     saveResultsToFile();
                     displayResults();
                     return;
                 }
 
                 // Parse bid input
-                String[] parts = input.split(" bids ");
-                if (parts.length == 2) {
-                    String buyerUsername = parts[0];
-                    double amount = Double.parseDouble(parts[1]);
-
-                    // Check if the buyer exists
-                    if (!buyerList.usernameExists(buyerUsername)) {
-                        System.out.println("Buyer with username " + buyerUsername + " does not exist. Please enter a valid username.");
-                        continue;
-                    }
-
-                    // Check if the bid is greater than or equal to the base price
-                    if (amount >= collection.getBasePrice()) {
-                        // Create and place bid
-                        Bid bid = new Bid(buyerUsername, collection.getAntiqueCollectionID(), amount);
-                        bids.add(bid);
-
-                        // Check if this bid is the highest bid
-                        if (highestBid == null || bid.getAmount() > highestBid.getAmount()) {
-                            highestBid = bid;
-                        }
-                        System.out.println("Bid placed successfully.");
-                    } else {
-                        System.out.println("Bid is below the base price. Please enter a valid bid.");
+                if (parser.parseConsoleBid(input) && parser.getCollectionId() < 0) {
+                    switch (placeBid(parser.getBuyerIndex(), collection.getAntiqueCollectionID(), parser.getAmountCents())) {
+                        case ACCEPTED:
+                            System.out.println("Bid placed successfully.");
+                            break;
+                        case UNKNOWN_BUYER:
+                            System.out.println("Buyer with username " + parser.getUsername(input) + " does not exist. Please enter a valid username.");
+                            break;
+                        case BELOW_BASE_PRICE:
+                            System.out.println("Bid is below the base price. Please enter a valid bid.");
+                            break;
+                        case NOT_RECORDED:
+                            System.out.println("Bid could not be recorded. Please try again.");
+                            break;
+                        default:
+                            System.out.println("Bidding for this collection is closed.");
+                            break;
                     }
                 } else {
+                    metrics.recordInvalidBid();
                     System.out.println("Invalid input. Please enter a valid bid.");
                 }
             }
+        }
+
+        System.out.println("All collections auctioned.");
+        saveResultsToFile();
+        displayResults();
+    }
+
+    /**
+     * Opens the bidding process for all collections at the same time. All collections close
+     * together once the bidding time is over, or when 'END' is entered. Closing can be
+     * staggered by setting a delay between consecutive collections in the
+     * {@code auction.silentClosingIntervalMillis} system property. Once the last collection
+     * has closed, the auction ends without waiting for more input.
+     *
+     * @param durationMillis the bidding time of the first collection, in milliseconds
+     */
+    private void openSilentBidding(long durationMillis) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        BidCommandParser parser = new BidCommandParser(getBuyerIndex());
 
-            if (highestBid != null) {
-                // Update collection status to "Sold" and set the sold price to the highest bid amount
-                collection.setStatus(Status.SOLD);
-                collection.setSoldPrice(highestBid.getAmount());
-                collection.setBuyerUsername(highestBid.getBuyerUsername()); // Set buyer username
+        openAllLots(durationMillis, Long.getLong(CLOSING_INTERVAL_PROPERTY, 0));
+        System.out.println("All collections are open for bidding.");
 
-                // Add sold collection to the list of sold collections
-                soldCollections.add(collection);
+        while (!openLots.isEmpty()) {
+            System.out.println("Buyers can place bids. Type 'END' to close all collections and finish the auction.");
+            System.out.print("Enter bid (format: [username] bids [amount] on [collection ID], e.g., 'buyer1 bids 200.00 on 2'): ");
+            String input = readBidLine(reader);
 
-                // Update the buyer's purchased items and debt
-                Buyer highestBidder = buyerList.getBuyerByUsername(highestBid.getBuyerUsername());
-                if (highestBidder != null) {
-                    highestBidder.addPurchasedItem(collection);
-                    highestBidder.addToDebt(highestBid.getAmount());
-                }
+            if (input == null || "END".equalsIgnoreCase(input)) {
+                break;
+            }
 
-                // Update total revenue
-                totalRevenue += highestBid.getAmount();
+            // Parse bid input
+            if (parser.parseConsoleBid(input) && parser.getCollectionId() >= 0) {
+                int collectionId = parser.getCollectionId();
+                switch (placeBid(parser.getBuyerIndex(), collectionId, parser.getAmountCents())) {
+                    case ACCEPTED:
+                        System.out.println("Bid placed successfully.");
+                        break;
+                    case UNKNOWN_BUYER:
+                        System.out.println("Buyer with username " + parser.getUsername(input) + " does not exist. Please enter a valid username.");
+                        break;
+                    case BELOW_BASE_PRICE:
+                        System.out.println("Bid is below the base price. Please enter a valid bid.");
+                        break;
+                    case NOT_RECORDED:
+                        System.out.println("Bid could not be recorded. Please try again.");
+                        break;
+                    default:
+                        System.out.println("Collection ID " + collectionId + " is not open for bidding.");
+                        break;
+                }
+            } else {
+                metrics.recordInvalidBid();
+                System.out.println("Invalid input. Please enter a valid bid.");
             }
         }
 
+        closeAllLots();
+        awaitAllLotsClosed();
+
         System.out.println("All collections auctioned.");
         saveResultsToFile();
         displayResults();
     }
 
     /**
-     * Saves the auction results to a file.
+     * Waits for the next line of console input while collections are still open for bidding.
+     *
+     * @param reader the console input
+     * @return the line entered, or null if every collection closed first or the input ended
      */
-    private void saveResultsToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(AUCTION_RESULTS_FILE))) {
-            writer.write("Auction Results:\n");
-            writer.write("----------------\n");
+    private String readBidLine(BufferedReader reader) {
+        try {
+            while (!reader.ready()) {
+                if (lotsRemaining.await(INPUT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    System.out.println();
+                    return null;
+                }
+            }
+            return reader.readLine();
+        } catch (IOException e) {
+            System.out.println("Error reading input: " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Opens every collection in the auction for bidding at the same time. Closing is
+     * scheduled per collection on a bounded pool of worker threads shared by all lots.
+     *
+     * @param durationMillis        the bidding time of the first collection, in milliseconds
+     * @param closingIntervalMillis the delay between the closing times of consecutive collections, in milliseconds, or 0 to close them all together
+     */
+    public void openAllLots(long durationMillis, long closingIntervalMillis) {
+        ArrayList<AntiqueCollection> openedCollections = new ArrayList<>();
+        for (AntiqueCollection collection : antiqueCollections) {
+            if (openLot(collection)) {
+                openedCollections.add(collection);
+            }
+        }
+
+        lotScheduler = Executors.newScheduledThreadPool(LOT_WORKERS, runnable -> {
+            Thread thread = new Thread(runnable, "auction-lot-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lotsRemaining = new CountDownLatch(openedCollections.size());
+        lotClosings = new ArrayList<>(openedCollections.size());
+
+        long delay = durationMillis;
+        for (AntiqueCollection collection : openedCollections) {
+            int collectionId = collection.getAntiqueCollectionID();
+            lotClosings.add(lotScheduler.schedule(() -> {
+                try {
+                    announceClosing(collectionId, closeLot(collectionId));
+                } finally {
+                    lotsRemaining.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS));
+            delay += closingIntervalMillis;
+        }
+    }
 
-            for (AntiqueCollection soldCollection : soldCollections) {
-                writer.write("Collection ID: " + soldCollection.getAntiqueCollectionID() + "\n");
-                writer.write("Collection name: " + soldCollection.getName() + "\n");
-                writer.write("Base Price: $" + soldCollection.getBasePrice() + "\n");
-                writer.write("Sold Price: $" + soldCollection.getSoldPrice() + "\n");
-                writer.write("Purchased by: " + soldCollection.getBuyerUsername() + "\n");
-                writer.write("-------------------------------------\n");
+    /**
+     * Closes every collection that is still open for bidding. Scheduled closings that have
+     * not started yet are cancelled, so waiting for the lots to close returns as soon as the
+     * closings already running have finished.
+     */
+    public void closeAllLots() {
+        if (lotClosings != null) {
+            for (ScheduledFuture<?> lotClosing : lotClosings) {
+                if (lotClosing.cancel(false)) {
+                    lotsRemaining.countDown();
+                }
             }
+        }
+        for (Integer collectionId : openLots.keySet()) {
+            announceClosing(collectionId, closeLot(collectionId));
+        }
+    }
+
+    /**
+     * Waits until every collection opened by {@link #openAllLots(long, long)} has closed,
+     * then releases the worker threads.
+     */
+    public void awaitAllLotsClosed() {
+        if (lotScheduler == null) {
+            return;
+        }
+        try {
+            lotsRemaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lotScheduler.shutdownNow();
+            lotScheduler = null;
+            lotClosings = null;
+        }
+    }
 
-            writer.write("Total Revenue: $" + totalRevenue + "\n");
+    /**
+     * Prints the outcome of a collection whose bidding has closed.
+     *
+     * @param collectionId the ID of the closed collection
+     * @param highestBid   the winning bid, or null if the collection was not sold
+     */
+    private void announceClosing(int collectionId, Bid highestBid) {
+        if (highestBid != null) {
+            System.out.println();
+            System.out.println("Collection ID " + collectionId + " sold!!! Purchased by: " + highestBid.getBuyerUsername() + " for $" + highestBid.getAmount());
+        }
+    }
+
+    /**
+     * Opens a collection for bidding.
+     *
+     * @param collection the antique collection to open
+     * @return true if the collection was opened, false if it is already sold or already open
+     */
+    public boolean openLot(AntiqueCollection collection) {
+        if (collection.getStatus() == Status.SOLD) {
+            return false;
+        }
+        Integer recoveredLeadingSlot = recoveredLeadingBids.remove(collection.getAntiqueCollectionID());
+        AuctionLot lot = new AuctionLot(collection, bidStore, recoveredLeadingSlot == null ? -1 : recoveredLeadingSlot);
+        if (openLots.putIfAbsent(collection.getAntiqueCollectionID(), lot) != null) {
+            return false;
+        }
+        metrics.lotOpened(collection.getAntiqueCollectionID());
+        return true;
+    }
+
+    /**
+     * Places a bid on an open collection. This method can be called by many threads at once;
+     * the leading bid of each collection is updated atomically without a global lock.
+     * If a journal is set, the bid is only offered to the collection and reported as accepted
+     * once it is on disk.
+     *
+     * @param buyerUsername the username of the buyer placing the bid
+     * @param collectionId  the ID of the collection being bid on
+     * @param amount        the amount of the bid
+     * @return the result of placing the bid
+     */
+    public BidResult placeBid(String buyerUsername, int collectionId, double amount) {
+        return placeBid(getBuyerIndex().indexOf(buyerUsername), collectionId, Money.toCents(amount));
+    }
+
+    /**
+     * Places a bid on an open collection, identifying the buyer by its index in the BuyerIndex
+     * of the buyer list and giving the amount in cents. The bid is recorded in the bid store
+     * without creating a Bid object.
+     *
+     * @param buyerIndex   the index of the buyer placing the bid, or a negative value for an unknown buyer
+     * @param collectionId the ID of the collection being bid on
+     * @param amountCents  the amount of the bid in cents
+     * @return the result of placing the bid
+     */
+    public BidResult placeBid(int buyerIndex, int collectionId, long amountCents) {
+        long start = System.nanoTime();
+        BidResult result = offerBid(buyerIndex, collectionId, amountCents);
+        metrics.recordBid(result, collectionId, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Validates a bid and offers it to the lot of its collection.
+     *
+     * @param buyerIndex   the index of the buyer placing the bid, or a negative value for an unknown buyer
+     * @param collectionId the ID of the collection being bid on
+     * @param amountCents  the amount of the bid in cents
+     * @return the result of placing the bid
+     */
+    private BidResult offerBid(int buyerIndex, int collectionId, long amountCents) {
+        // Check if the buyer exists
+        if (buyerIndex < 0) {
+            return BidResult.UNKNOWN_BUYER;
+        }
+
+        AuctionLot lot = openLots.get(collectionId);
+        if (lot == null) {
+            return BidResult.LOT_NOT_OPEN;
+        }
+
+        // Check if the bid is greater than or equal to the base price
+        if (amountCents < Money.toCents(lot.getCollection().getBasePrice())) {
+            return BidResult.BELOW_BASE_PRICE;
+        }
+
+        int bidId = IdAllocator.bids().nextId();
+        int slot = bidStore.append(bidId, buyerIndex, collectionId, amountCents);
+
+        // The bid is only offered to the lot once it is on disk, so a bid that could be lost never leads
+        if (journal != null) {
+            long journalStart = System.nanoTime();
+            try {
+                journal.logBid(bidId, getBuyerIndex().usernameAt(buyerIndex), collectionId, amountCents).join();
+            } catch (CompletionException e) {
+                System.out.println("Error writing bid to journal: " + e.getCause().getMessage());
+                bidStore.voidBid(slot);
+                return BidResult.NOT_RECORDED;
+            } finally {
+                metrics.recordJournalWait(System.nanoTime() - journalStart);
+            }
+        }
+
+        if (!lot.offer(slot)) {
+            bidStore.voidBid(slot);
+            if (journal != null) {
+                journal.logVoidBid(bidId, collectionId);
+            }
+            return BidResult.LOT_CLOSED;
+        }
+        return BidResult.ACCEPTED;
+    }
+
+    /**
+     * Restores a bid recovered from the journal. The highest recovered bid of a collection
+     * that has not been sold becomes its leading bid when the collection is opened again.
+     * Bids of buyers that no longer exist are skipped.
+     *
+     * @param bid the recovered bid
+     */
+    public void restoreBid(Bid bid) {
+        int buyerIndex = getBuyerIndex().indexOf(bid.getBuyerUsername());
+        if (buyerIndex < 0) {
+            return;
+        }
+        int slot = bidStore.append(bid.getBidID(), buyerIndex, bid.getCollectionID(), Money.toCents(bid.getAmount()));
+        recoveredBidSlots.put(bid.getBidID(), slot);
+        recoveredSlotsByCollection.computeIfAbsent(bid.getCollectionID(), id -> new ArrayList<>()).add(slot);
+        recoveredLeadingBids.merge(bid.getCollectionID(), slot,
+                (current, recovered) -> bidStore.amountAt(recovered) > bidStore.amountAt(current) ? recovered : current);
+    }
+
+    /**
+     * Removes a bid recovered from the journal that was rejected because its collection had
+     * closed. The slot of the bid is looked up by its ID, and if it was the leading bid of the
+     * collection, the highest remaining recovered bid of the collection takes its place.
+     *
+     * @param bidId        the ID of the rejected bid
+     * @param collectionId the ID of the collection
+     */
+    public void voidRecoveredBid(int bidId, int collectionId) {
+        Integer voidSlot = recoveredBidSlots.remove(bidId);
+        if (voidSlot == null) {
+            return;
+        }
+        bidStore.voidBid(voidSlot);
+        ArrayList<Integer> collectionSlots = recoveredSlotsByCollection.get(collectionId);
+        if (collectionSlots != null) {
+            collectionSlots.remove(voidSlot);
+        }
+
+        if (!voidSlot.equals(recoveredLeadingBids.get(collectionId))) {
+            return;
+        }
+        int highestSlot = -1;
+        if (collectionSlots != null) {
+            for (int slot : collectionSlots) {
+                if (highestSlot < 0 || bidStore.amountAt(slot) > bidStore.amountAt(highestSlot)) {
+                    highestSlot = slot;
+                }
+            }
+        }
+        if (highestSlot < 0) {
+            recoveredLeadingBids.remove(collectionId);
+        } else {
+            recoveredLeadingBids.put(collectionId, highestSlot);
+        }
+    }
+
+    /**
+     * Releases the lookups built while bids were recovered from the journal. Bids placed after
+     * recovery are never voided through the journal, so the lookups are no longer needed.
+     */
+    public void finishRecovery() {
+        recoveredBidSlots = new HashMap<>();
+        recoveredSlotsByCollection = new HashMap<>();
+    }
+
+    /**
+     * Restores a sale recovered from the journal.
+     *
+     * @param collection    the sold antique collection
+     * @param buyerUsername the username of the buyer
+     * @param amount        the sold price
+     */
+    public void restoreSale(AntiqueCollection collection, String buyerUsername, double amount) {
+        recoveredLeadingBids.remove(collection.getAntiqueCollectionID());
+        if (collection.getStatus() != Status.SOLD) {
+            sell(collection, new Bid(0, buyerUsername, collection.getAntiqueCollectionID(), amount));
+        }
+    }
+
+    /**
+     * Gets the index of buyer usernames used to identify the buyers of bids.
+     *
+     * @return the buyer index
+     */
+    public BuyerIndex getBuyerIndex() {
+        return buyerList.getBuyerIndex();
+    }
+
+    /**
+     * Gets the store holding the history of bids placed in the auction.
+     *
+     * @return the bid store
+     */
+    public BidStore getBidStore() {
+        return bidStore;
+    }
+
+    /**
+     * Gets the current leading bid of an open collection.
+     *
+     * @param collectionId the ID of the collection
+     * @return the leading bid, or null if the collection is not open or has no bids
+     */
+    public Bid getLeadingBid(int collectionId) {
+        AuctionLot lot = openLots.get(collectionId);
+        return lot == null ? null : lot.getLeadingBid();
+    }
+
+    /**
+     * Closes bidding on a collection and sells it to the highest bidder, if any.
+     *
+     * @param collectionId the ID of the collection to close
+     * @return the winning bid, or null if the collection was not open or received no bids
+     */
+    public Bid closeLot(int collectionId) {
+        AuctionLot lot = openLots.remove(collectionId);
+        if (lot == null) {
+            return null;
+        }
+
+        Bid highestBid = lot.close();
+        metrics.lotClosed(collectionId);
+        if (highestBid != null) {
+            sell(lot.getCollection(), highestBid);
+            recordSale(lot.getCollection());
+        }
+        return highestBid;
+    }
+
+    /**
+     * Closes bidding on a collection without selling it.
+     *
+     * @param collectionId the ID of the collection to close
+     */
+    public void abandonLot(int collectionId) {
+        AuctionLot lot = openLots.remove(collectionId);
+        if (lot != null) {
+            lot.close();
+            metrics.lotClosed(collectionId);
+        }
+    }
+
+    /**
+     * Sells a collection to the buyer of the winning bid. Collections closing on
+     * different worker threads are settled in parallel.
+     *
+     * @param collection the antique collection being sold
+     * @param highestBid the winning bid
+     */
+    private void sell(AntiqueCollection collection, Bid highestBid) {
+        // Mark the collection as sold to the highest bidder at the highest bid amount
+        collection.markSold(highestBid.getAmount(), highestBid.getBuyerUsername());
+
+        // Add sold collection to the list of sold collections
+        soldCollections.add(collection);
+
+        // Update the buyer's purchased items
+        Buyer highestBidder = buyerList.getBuyerByUsername(highestBid.getBuyerUsername());
+        if (highestBidder != null) {
+            highestBidder.addPurchasedItem(collection);
+        }
+
+        // Update total revenue, seller proceeds and buyer debt
+        ledger.recordSale(collection.getSellerID(), highestBid.getBuyerUsername(), Money.toCents(highestBid.getAmount()));
+    }
+
+    /**
+     * Gets the metrics of the bid path of the auction.
+     *
+     * @return the auction metrics
+     */
+    public AuctionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the ledger accounting for the revenue, seller proceeds and buyer debt of the auction.
+     *
+     * @return the ledger
+     */
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Records a sale in the journal and appends it to the results file.
+     *
+     * @param soldCollection the sold antique collection
+     */
+    private void recordSale(AntiqueCollection soldCollection) {
+        if (journal != null) {
+            journal.logSale(soldCollection);
+        }
+        long start = System.nanoTime();
+        try {
+            resultsWriter.appendSale(soldCollection);
         } catch (IOException e) {
             System.out.println("Error writing auction results to file: " + e.getMessage());
         }
+        metrics.recordResultsWrite(System.nanoTime() - start);
+    }
+
+    /**
+     * Saves the auction results to a file. Sold collections are appended as each collection
+     * closes, so only the footer with the total revenue is written here.
+     */
+    public void saveResultsToFile() {
+        long start = System.nanoTime();
+        try {
+            resultsWriter.appendFooter(Money.toDollars(ledger.getTotalRevenueCents()));
+        } catch (IOException e) {
+            System.out.println("Error writing auction results to file: " + e.getMessage());
+        }
+        metrics.recordResultsWrite(System.nanoTime() - start);
     }
 
     /**
      * Displays the auction results.
      */
     public void displayResults() {
+        Ledger.Snapshot snapshot = ledger.snapshot();
         System.out.println("Auction Results:");
         System.out.println("----------------");
 
@@ -176,7 +716,7 @@ public class Auction {
             System.out.println("-------------------------------------");
         }
 
-        System.out.println("Total Revenue: $" + totalRevenue); // Display total revenue
+        System.out.println("Total Revenue: $" + Money.toDollars(snapshot.getTotalRevenueCents())); // Display total revenue
     }
 
     /**
@@ -186,11 +726,7 @@ public class Auction {
      * @return the bid for the specified collection ID, or null if not found
      */
     private Bid findBidByCollectionId(int collectionId) {
-        for (Bid bid : bids) {
-            if (bid.getCollectionID() == collectionId) {
-                return bid;
-            }
-        }
-        return null;
+        List<Bid> collectionBids = bidStore.bidsForCollection(collectionId);
+        return collectionBids.isEmpty() ? null : collectionBids.get(0);
     }
 }
@@ -0,0 +1,105 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AuctionLot class represents an antique collection that is open for bidding.
+ * It tracks the slot of the leading bid in the BidStore and can be updated by many threads at once.
+ */
+public class AuctionLot {
+    /**
+     * Leading slot value used while no bid has been placed.
+     */
+    private static final int NO_BID = -1;
+
+    /**
+     * Leading slot value stored once the lot has been closed.
+     */
+    private static final int CLOSED = -2;
+
+    private final AntiqueCollection collection;
+    private final BidStore bidStore;
+    private final AtomicInteger leadingSlot;
+
+    /**
+     * Constructs an AuctionLot object for the specified collection.
+     *
+     * @param collection the antique collection being auctioned
+     * @param bidStore   the store holding the bids placed on the collection
+     */
+    public AuctionLot(AntiqueCollection collection, BidStore bidStore) {
+        this(collection, bidStore, NO_BID);
+    }
+
+    /**
+     * Constructs an AuctionLot object for the specified collection with an existing leading bid.
+     *
+     * @param collection  the antique collection being auctioned
+     * @param bidStore    the store holding the bids placed on the collection
+     * @param leadingSlot the slot of the leading bid, or a negative value if no bid has been placed
+     */
+    public AuctionLot(AntiqueCollection collection, BidStore bidStore, int leadingSlot) {
+        this.collection = collection;
+        this.bidStore = bidStore;
+        this.leadingSlot = new AtomicInteger(leadingSlot < 0 ? NO_BID : leadingSlot);
+    }
+
+    /**
+     * Gets the antique collection being auctioned.
+     *
+     * @return the antique collection being auctioned
+     */
+    public AntiqueCollection getCollection() {
+        return collection;
+    }
+
+    /**
+     * Offers a stored bid to the lot. The bid becomes the leading bid if its amount is
+     * higher than the current leading bid; ties are won by the earlier bid.
+     *
+     * @param slot the slot of the bid in the BidStore
+     * @return true if the lot was still open and the bid was accepted, false if the lot is closed
+     */
+    public boolean offer(int slot) {
+        long amount = bidStore.amountAt(slot);
+        while (true) {
+            int current = leadingSlot.get();
+            if (current == CLOSED) {
+                return false;
+            }
+            if (current != NO_BID && amount <= bidStore.amountAt(current)) {
+                return true;
+            }
+            if (leadingSlot.compareAndSet(current, slot)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the current leading bid of the lot.
+     *
+     * @return the leading bid, or null if no bid has been placed or the lot is closed
+     */
+    public Bid getLeadingBid() {
+        int current = leadingSlot.get();
+        return current < 0 ? null : bidStore.bidAt(current);
+    }
+
+    /**
+     * Checks if the lot has been closed.
+     *
+     * @return true if the lot is closed, otherwise false
+     */
+    public boolean isClosed() {
+        return leadingSlot.get() == CLOSED;
+    }
+
+    /**
+     * Closes the lot so that no further bids are accepted.
+     *
+     * @return the winning bid, or null if no bid was placed or the lot was already closed
+     */
+    public Bid close() {
+        int winner = leadingSlot.getAndSet(CLOSED);
+        return winner < 0 ? null : bidStore.bidAt(winner);
+    }
+}
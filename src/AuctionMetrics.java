@@ -0,0 +1,307 @@
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The AuctionMetrics class counts and times what happens on the bid path of an auction:
+ * bids by result, bid latencies with and without correction for coordinated omission,
+ * the bid rate of every open collection, journal waits and results file writes.
+ * Recording only touches striped counters and atomic histogram buckets, so it adds no
+ * locking to the bid path. Once registered, the metrics can be read with any JMX client,
+ * e.g. JConsole, under {@code CharityAuctionSystem:type=AuctionMetrics}.
+ */
+public class AuctionMetrics implements AuctionMetricsMXBean {
+    /**
+     * The system property holding the default expected time between the bids of one
+     * bidder, in microseconds.
+     */
+    public static final String EXPECTED_BID_INTERVAL_PROPERTY = "auction.metrics.expectedBidIntervalMicros";
+    private static final String OBJECT_NAME = "CharityAuctionSystem:type=AuctionMetrics";
+
+    private LongAdder[] bidCounts;
+    private LatencyHistogram bidLatency;
+    private LatencyHistogram correctedBidLatency;
+    private LatencyHistogram networkBidLatency;
+    private LatencyHistogram journalWait;
+    private LatencyHistogram resultsWriteLatency;
+    private ConcurrentHashMap<Integer, LotStats> lotStats;
+    private volatile long expectedBidIntervalNanos;
+
+    /**
+     * The bids received by one collection and the time it was open.
+     */
+    private static class LotStats {
+        private final LongAdder bids = new LongAdder();
+        private final long openedNanos = System.nanoTime();
+        private volatile long closedNanos;
+    }
+
+    /**
+     * Constructs an AuctionMetrics object with no recorded bids.
+     */
+    public AuctionMetrics() {
+        this.bidCounts = new LongAdder[BidResult.values().length];
+        for (int i = 0; i < bidCounts.length; i++) {
+            bidCounts[i] = new LongAdder();
+        }
+        this.bidLatency = new LatencyHistogram();
+        this.correctedBidLatency = new LatencyHistogram();
+        this.networkBidLatency = new LatencyHistogram();
+        this.journalWait = new LatencyHistogram();
+        this.resultsWriteLatency = new LatencyHistogram();
+        this.lotStats = new ConcurrentHashMap<>();
+        this.expectedBidIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong(EXPECTED_BID_INTERVAL_PROPERTY, 0));
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, replacing metrics registered earlier.
+     *
+     * @throws JMException if the metrics cannot be registered
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * Records a bid placed in the auction.
+     *
+     * @param result       the result of placing the bid
+     * @param collectionId the ID of the collection the bid was placed on
+     * @param latencyNanos the time it took to place the bid, in nanoseconds
+     */
+    public void recordBid(BidResult result, int collectionId, long latencyNanos) {
+        bidCounts[result.ordinal()].increment();
+        bidLatency.record(latencyNanos);
+        correctedBidLatency.recordWithExpectedInterval(latencyNanos, expectedBidIntervalNanos);
+        LotStats stats = lotStats.get(collectionId);
+        if (stats != null) {
+            stats.bids.increment();
+        }
+    }
+
+    /**
+     * Records a bid command that could not be parsed.
+     */
+    public void recordInvalidBid() {
+        bidCounts[BidResult.INVALID_FORMAT.ordinal()].increment();
+    }
+
+    /**
+     * Records the end-to-end latency of a bid received over the network.
+     *
+     * @param latencyNanos the time from reading the bid to queuing its response, in nanoseconds
+     */
+    public void recordNetworkBid(long latencyNanos) {
+        networkBidLatency.record(latencyNanos);
+    }
+
+    /**
+     * Records the time an accepted bid waited for the journal.
+     *
+     * @param waitNanos the wait in nanoseconds
+     */
+    public void recordJournalWait(long waitNanos) {
+        journalWait.record(waitNanos);
+    }
+
+    /**
+     * Records the time it took to write to the results file.
+     *
+     * @param writeNanos the write time in nanoseconds
+     */
+    public void recordResultsWrite(long writeNanos) {
+        resultsWriteLatency.record(writeNanos);
+    }
+
+    /**
+     * Starts measuring the bid rate of a collection that was opened for bidding.
+     *
+     * @param collectionId the ID of the opened collection
+     */
+    public void lotOpened(int collectionId) {
+        lotStats.put(collectionId, new LotStats());
+    }
+
+    /**
+     * Stops measuring the bid rate of a collection that was closed.
+     *
+     * @param collectionId the ID of the closed collection
+     */
+    public void lotClosed(int collectionId) {
+        LotStats stats = lotStats.get(collectionId);
+        if (stats != null) {
+            stats.closedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Gets the number of bids placed so far by result.
+     *
+     * @return the number of bids by result name
+     */
+    @Override
+    public Map<String, Long> getBidCounts() {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        for (BidResult result : BidResult.values()) {
+            counts.put(result.name(), bidCounts[result.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of accepted bids.
+     *
+     * @return the number of accepted bids
+     */
+    @Override
+    public long getAcceptedBids() {
+        return bidCounts[BidResult.ACCEPTED.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of rejected bids, whatever the reason.
+     *
+     * @return the number of rejected bids
+     */
+    @Override
+    public long getRejectedBids() {
+        long rejected = 0;
+        for (BidResult result : BidResult.values()) {
+            if (result != BidResult.ACCEPTED) {
+                rejected += bidCounts[result.ordinal()].sum();
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Gets the time it takes the auction to place a bid.
+     *
+     * @return the bid latency
+     */
+    @Override
+    public LatencySummary getBidLatency() {
+        return new LatencySummary(bidLatency);
+    }
+
+    /**
+     * Gets the bid latency corrected for coordinated omission.
+     *
+     * @return the corrected bid latency
+     */
+    @Override
+    public LatencySummary getCorrectedBidLatency() {
+        return new LatencySummary(correctedBidLatency);
+    }
+
+    /**
+     * Gets the end-to-end latency of network bids.
+     *
+     * @return the network bid latency
+     */
+    @Override
+    public LatencySummary getNetworkBidLatency() {
+        return new LatencySummary(networkBidLatency);
+    }
+
+    /**
+     * Gets the time accepted bids wait for the journal.
+     *
+     * @return the journal wait
+     */
+    @Override
+    public LatencySummary getJournalWait() {
+        return new LatencySummary(journalWait);
+    }
+
+    /**
+     * Gets the time it takes to write to the results file.
+     *
+     * @return the results write latency
+     */
+    @Override
+    public LatencySummary getResultsWriteLatency() {
+        return new LatencySummary(resultsWriteLatency);
+    }
+
+    /**
+     * Gets the number of bids per second each collection has received while it was open.
+     *
+     * @return the bid rate by collection ID
+     */
+    @Override
+    public Map<Integer, Double> getLotBidRates() {
+        long now = System.nanoTime();
+        HashMap<Integer, Double> rates = new HashMap<>();
+        lotStats.forEach((collectionId, stats) -> {
+            long closedNanos = stats.closedNanos;
+            long openNanos = (closedNanos == 0 ? now : closedNanos) - stats.openedNanos;
+            rates.put(collectionId, openNanos <= 0 ? 0 : stats.bids.sum() * 1e9 / openNanos);
+        });
+        return rates;
+    }
+
+    /**
+     * Gets the number of collections open for bidding.
+     *
+     * @return the number of open collections
+     */
+    @Override
+    public int getOpenLots() {
+        int open = 0;
+        for (LotStats stats : lotStats.values()) {
+            if (stats.closedNanos == 0) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Gets the expected time between the bids of one bidder.
+     *
+     * @return the expected interval in microseconds, or 0 if latencies are not corrected
+     */
+    @Override
+    public long getExpectedBidIntervalMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(expectedBidIntervalNanos);
+    }
+
+    /**
+     * Sets the expected time between the bids of one bidder.
+     *
+     * @param expectedBidIntervalMicros the expected interval in microseconds, or 0 to not correct latencies
+     */
+    @Override
+    public void setExpectedBidIntervalMicros(long expectedBidIntervalMicros) {
+        this.expectedBidIntervalNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, expectedBidIntervalMicros));
+    }
+
+    /**
+     * Clears all counters and latencies, and forgets collections that have closed.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder count : bidCounts) {
+            count.reset();
+        }
+        bidLatency.reset();
+        correctedBidLatency.reset();
+        networkBidLatency.reset();
+        journalWait.reset();
+        resultsWriteLatency.reset();
+        lotStats.values().removeIf(stats -> stats.closedNanos != 0);
+    }
+}
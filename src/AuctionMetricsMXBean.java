@@ -0,0 +1,97 @@
+import java.util.Map;
+
+/**
+ * The AuctionMetricsMXBean interface defines the auction metrics shown over JMX.
+ * Latencies are summarized as percentiles in microseconds.
+ */
+public interface AuctionMetricsMXBean {
+    /**
+     * Gets the number of bids placed so far by result, e.g. ACCEPTED or BELOW_BASE_PRICE.
+     *
+     * @return the number of bids by result name
+     */
+    Map<String, Long> getBidCounts();
+
+    /**
+     * Gets the number of accepted bids.
+     *
+     * @return the number of accepted bids
+     */
+    long getAcceptedBids();
+
+    /**
+     * Gets the number of rejected bids, whatever the reason.
+     *
+     * @return the number of rejected bids
+     */
+    long getRejectedBids();
+
+    /**
+     * Gets the time it takes the auction to place a bid, including the wait for the journal.
+     *
+     * @return the bid latency
+     */
+    LatencySummary getBidLatency();
+
+    /**
+     * Gets the bid latency corrected for coordinated omission, using the expected interval
+     * between the bids of one bidder.
+     *
+     * @return the corrected bid latency
+     */
+    LatencySummary getCorrectedBidLatency();
+
+    /**
+     * Gets the time from reading a bid off the network to queuing its response.
+     *
+     * @return the end-to-end latency of network bids
+     */
+    LatencySummary getNetworkBidLatency();
+
+    /**
+     * Gets the time accepted bids wait for the journal to write them to disk.
+     *
+     * @return the journal wait
+     */
+    LatencySummary getJournalWait();
+
+    /**
+     * Gets the time it takes to write sold collections and the total revenue to the results file.
+     *
+     * @return the results write latency
+     */
+    LatencySummary getResultsWriteLatency();
+
+    /**
+     * Gets the number of bids per second each collection has received while it was open.
+     *
+     * @return the bid rate by collection ID
+     */
+    Map<Integer, Double> getLotBidRates();
+
+    /**
+     * Gets the number of collections open for bidding.
+     *
+     * @return the number of open collections
+     */
+    int getOpenLots();
+
+    /**
+     * Gets the expected time between the bids of one bidder, used to correct for coordinated omission.
+     *
+     * @return the expected interval in microseconds, or 0 if latencies are not corrected
+     */
+    long getExpectedBidIntervalMicros();
+
+    /**
+     * Sets the expected time between the bids of one bidder, used to correct for coordinated omission.
+     *
+     * @param expectedBidIntervalMicros the expected interval in microseconds, or 0 to not correct latencies
+     */
+    void setExpectedBidIntervalMicros(long expectedBidIntervalMicros);
+
+    /**
+     * Clears all counters and latencies, e.g. at the start of a new auction.
+     */
+    void reset();
+}
@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The AuctionResultsReader class represents a singleton reader of the auction results file.
+ * The file is memory-mapped and indexed once: the reader keeps the offset of every sold
+ * collection record by collection ID and by buyer username, so single results and pages of
+ * results are read directly instead of streaming the whole file. Results appended after the
+ * last query are indexed incrementally.
+ */
+public class AuctionResultsReader {
+    private static final String AUCTION_RESULTS_FILE = "auction_results.txt";
+    private static final String RECORD_START = "Collection ID: ";
+    private static final String RECORD_BUYER = "Purchased by: ";
+    private static final String RECORD_END = "-------------------------------------";
+    private static final String FOOTER = "Total Revenue: ";
+    private static AuctionResultsReader instance;
+
+    private Path path;
+    private MappedByteBuffer mappedFile;
+    private long indexedLength;
+    private ArrayList<long[]> records;
+    private HashMap<Integer, ArrayList<Integer>> recordsByCollectionId;
+    private HashMap<String, ArrayList<Integer>> recordsByBuyer;
+    private String totalRevenueLine;
+
+    /**
+     * Constructs an AuctionResultsReader object for the specified file.
+     *
+     * @param fileName the name of the results file
+     */
+    public AuctionResultsReader(String fileName) {
+        this.path = Paths.get(fileName);
+        reset();
+    }
+
+    /**
+     * Gets the singleton instance of AuctionResultsReader for the auction results file.
+     *
+     * @return the singleton instance of AuctionResultsReader
+     */
+    public static synchronized AuctionResultsReader getInstance() {
+        if (instance == null) {
+            instance = new AuctionResultsReader(AUCTION_RESULTS_FILE);
+        }
+        return instance;
+    }
+
+    /**
+     * Maps the results file again if it has grown and indexes the records appended since the
+     * last refresh. If the file has shrunk, it is indexed again from the start.
+     *
+     * @throws IOException if the results file cannot be read
+     */
+    public synchronized void refresh() throws IOException {
+        long size = Files.exists(path) ? Files.size(path) : 0;
+        if (size < indexedLength) {
+            reset();
+        }
+        if (size == indexedLength) {
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Auction results file is too large to map.");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mappedFile = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int position = (int) indexedLength;
+        int recordStart = -1;
+        String buyerUsername = null;
+        int collectionId = 0;
+
+        for (int lineStart = position; lineStart < size; ) {
+            int lineEnd = lineStart;
+            while (lineEnd < size && mappedFile.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == size) {
+                break; // The last line is still being written
+            }
+            String line = decode(lineStart, lineEnd - lineStart);
+
+            if (line.startsWith(RECORD_START)) {
+                recordStart = lineStart;
+                buyerUsername = null;
+                try {
+                    collectionId = Integer.parseInt(line.substring(RECORD_START.length()).trim());
+                } catch (NumberFormatException e) {
+                    recordStart = -1;
+                }
+            } else if (line.startsWith(RECORD_BUYER)) {
+                buyerUsername = line.substring(RECORD_BUYER.length());
+            } else if (line.equals(RECORD_END) && recordStart >= 0) {
+                int recordNumber = records.size();
+                records.add(new long[] {recordStart, lineEnd + 1 - recordStart});
+                recordsByCollectionId.computeIfAbsent(collectionId, id -> new ArrayList<>()).add(recordNumber);
+                if (buyerUsername != null) {
+                    recordsByBuyer.computeIfAbsent(buyerUsername, username -> new ArrayList<>()).add(recordNumber);
+                }
+                recordStart = -1;
+            } else if (line.startsWith(FOOTER)) {
+                totalRevenueLine = line;
+            }
+
+            // Only complete records are indexed; an unfinished record is read again next time
+            if (recordStart < 0) {
+                position = lineEnd + 1;
+            }
+            lineStart = lineEnd + 1;
+        }
+        indexedLength = position;
+    }
+
+    /**
+     * Returns the number of sold collection records in the results file.
+     *
+     * @return the number of records
+     */
+    public synchronized int getRecordCount() {
+        return records.size();
+    }
+
+    /**
+     * Returns a sold collection record by its position in the results file.
+     *
+     * @param recordNumber the position of the record, starting at 0
+     * @return the text of the record
+     */
+    public synchronized String getRecord(int recordNumber) {
+        long[] record = records.get(recordNumber);
+        return decode((int) record[0], (int) record[1]);
+    }
+
+    /**
+     * Returns a page of all sold collection records, in the order they were written.
+     *
+     * @param page     the page number, starting at 0
+     * @param pageSize the number of records per page
+     * @return the records on the page
+     */
+    public synchronized List<String> getRecords(int page, int pageSize) {
+        ArrayList<String> result = new ArrayList<>();
+        int end = (int) Math.min(records.size(), (long) (page + 1) * pageSize);
+        for (int i = page * pageSize; i < end; i++) {
+            result.add(getRecord(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the records of the specified collection.
+     *
+     * @param collectionId the ID of the collection
+     * @return the records of the collection
+     */
+    public synchronized List<String> getRecordsForCollection(int collectionId) {
+        return getPage(recordsByCollectionId.getOrDefault(collectionId, new ArrayList<>()), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a page of the records of the specified collections, in the order they were written.
+     *
+     * @param collectionIds the IDs of the collections
+     * @param page          the page number, starting at 0
+     * @param pageSize      the number of records per page
+     * @return the records on the page
+     */
+    public synchronized List<String> getRecordsForCollections(Collection<Integer> collectionIds, int page, int pageSize) {
+        ArrayList<Integer> recordNumbers = new ArrayList<>();
+        for (Integer collectionId : collectionIds) {
+            recordNumbers.addAll(recordsByCollectionId.getOrDefault(collectionId, new ArrayList<>()));
+        }
+        Collections.sort(recordNumbers);
+        return getPage(recordNumbers, page, pageSize);
+    }
+
+    /**
+     * Returns a page of the records of collections purchased by the specified buyer.
+     *
+     * @param buyerUsername the username of the buyer
+     * @param page          the page number, starting at 0
+     * @param pageSize      the number of records per page
+     * @return the records on the page
+     */
+    public synchronized List<String> getRecordsForBuyer(String buyerUsername, int page, int pageSize) {
+        return getPage(recordsByBuyer.getOrDefault(buyerUsername, new ArrayList<>()), page, pageSize);
+    }
+
+    /**
+     * Returns the most recent total revenue line written to the results file.
+     *
+     * @return the total revenue line, or null if no auction has finished yet
+     */
+    public synchronized String getTotalRevenueLine() {
+        return totalRevenueLine;
+    }
+
+    /**
+     * Reads a page of records from a list of record numbers.
+     *
+     * @param recordNumbers the positions of the records
+     * @param page          the page number, starting at 0
+     * @param pageSize      the number of records per page
+     * @return the records on the page
+     */
+    private List<String> getPage(List<Integer> recordNumbers, int page, int pageSize) {
+        ArrayList<String> result = new ArrayList<>();
+        long start = (long) page * pageSize;
+        long end = Math.min(recordNumbers.size(), start + pageSize);
+        for (long i = start; i < end; i++) {
+            result.add(getRecord(recordNumbers.get((int) i)));
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a range of the mapped results file.
+     *
+     * @param offset the offset of the first byte
+     * @param length the number of bytes
+     * @return the decoded text
+     */
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = mappedFile.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Clears the index.
+     */
+    private void reset() {
+        mappedFile = null;
+        indexedLength = 0;
+        records = new ArrayList<>();
+        recordsByCollectionId = new HashMap<>();
+        recordsByBuyer = new HashMap<>();
+        totalRevenueLine = null;
+    }
+}
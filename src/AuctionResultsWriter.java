@@ -0,0 +1,90 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The AuctionResultsWriter class appends auction results to the results file.
+ * Each sold collection is appended as soon as its bidding closes, and a footer with the
+ * total revenue is appended when the auction finishes, so earlier results are never rewritten.
+ */
+public class AuctionResultsWriter implements Closeable {
+    private String fileName;
+    private BufferedWriter writer;
+
+    /**
+     * Constructs an AuctionResultsWriter object for the specified file.
+     * The file is opened when the first result is written.
+     *
+     * @param fileName the name of the results file
+     */
+    public AuctionResultsWriter(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Appends a sold collection to the results file.
+     *
+     * @param soldCollection the sold antique collection
+     * @throws IOException if the results file cannot be written
+     */
+    public synchronized void appendSale(AntiqueCollection soldCollection) throws IOException {
+        BufferedWriter writer = openWriter();
+        writer.write("Collection ID: " + soldCollection.getAntiqueCollectionID() + "\n");
+        writer.write("Collection name: " + soldCollection.getName() + "\n");
+        writer.write("Base Price: $" + soldCollection.getBasePrice() + "\n");
+        writer.write("Sold Price: $" + soldCollection.getSoldPrice() + "\n");
+        writer.write("Purchased by: " + soldCollection.getBuyerUsername() + "\n");
+        writer.write("-------------------------------------\n");
+        writer.flush();
+    }
+
+    /**
+     * Appends the footer with the total revenue of the auction to the results file.
+     *
+     * @param totalRevenue the total revenue of the auction
+     * @throws IOException if the results file cannot be written
+     */
+    public synchronized void appendFooter(double totalRevenue) throws IOException {
+        BufferedWriter writer = openWriter();
+        writer.write("Total Revenue: $" + totalRevenue + "\n");
+        writer.flush();
+    }
+
+    /**
+     * Closes the results file.
+     *
+     * @throws IOException if the results file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Opens the results file for appending in UTF-8, the encoding the AuctionResultsReader
+     * decodes, writing the header if the file is empty.
+     *
+     * @return the writer for the results file
+     * @throws IOException if the results file cannot be opened
+     */
+    private BufferedWriter openWriter() throws IOException {
+        if (writer == null) {
+            Path path = Paths.get(fileName);
+            boolean empty = !Files.exists(path) || Files.size(path) == 0;
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (empty) {
+                writer.write("Auction Results:\n");
+                writer.write("----------------\n");
+            }
+        }
+        return writer;
+    }
+}
@@ -2,8 +2,6 @@
  * The Bid class represents a bid placed by a buyer for an antique collection in the auction system.
  */
 public class Bid {
-    private static int nextId = 1;
-
     private int bidID;
     private String buyerUsername;
     private int collectionID;
@@ -17,28 +15,25 @@ public class Bid {
      * @param amount        the amount of the bid
      */
     public Bid(String buyerUsername, int collectionID, double amount) {
-        this.bidID = nextId++;
+        this.bidID = IdAllocator.bids().nextId();
         this.buyerUsername = buyerUsername;
         this.collectionID = collectionID;
         this.amount = amount;
     }
 
     /**
-     * Gets the next ID to be assigned to a new bid.
+     * Constructs a Bid object with an already assigned ID.
      *
-     * @return the next ID to be assigned to a new bid
-     */
-    public static int getNextId() {
-        return nextId;
-    }
-
-    /**
-     * Sets the next ID to be assigned to a new bid.
-     *
-     * @param nextId the new next ID to be assigned to a new bid
+     * @param bidID         the ID of the bid
+     * @param buyerUsername the username of the buyer placing the bid
+     * @param collectionID  the ID of the antique collection being bid on
+     * @param amount        the amount of the bid
      */
-    public static void setNextId(int nextId) {
-        Bid.nextId = nextId;
+    public Bid(int bidID, String buyerUsername, int collectionID, double amount) {
+        this.bidID = bidID;
+        this.buyerUsername = buyerUsername;
+        this.collectionID = collectionID;
+        this.amount = amount;
     }
 
     /**
@@ -0,0 +1,343 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The BidCommandParser class parses bid commands without allocating memory.
+ * It reads the console form {@code [username] bids [amount]}, optionally followed by
+ * {@code on [collection ID]}, from a CharSequence, and the network form
+ * {@code BID [username] [collection ID] [amount]} from a ByteBuffer. The username is
+ * resolved to its index in the BuyerIndex and the amount is parsed directly into cents.
+ * The parsed fields are kept in the parser until the next command is parsed, so each
+ * thread should use its own parser.
+ */
+public class BidCommandParser {
+    private static final String BIDS = " bids ";
+    private static final String ON = " on ";
+    private static final int MAX_AMOUNT_DIGITS = 15;
+
+    private BuyerIndex buyerIndex;
+    private int buyerIndexResult;
+    private int collectionId;
+    private long amountCents;
+    private int usernameStart;
+    private int usernameEnd;
+
+    /**
+     * Constructs a BidCommandParser object that resolves usernames with the specified index.
+     *
+     * @param buyerIndex the index of buyer usernames
+     */
+    public BidCommandParser(BuyerIndex buyerIndex) {
+        this.buyerIndex = buyerIndex;
+    }
+
+    /**
+     * Parses a console bid command, {@code [username] bids [amount]} or
+     * {@code [username] bids [amount] on [collection ID]}.
+     *
+     * @param command the command
+     * @return true if the command is well formed, otherwise false
+     */
+    public boolean parseConsoleBid(CharSequence command) {
+        return parseConsoleBid(command, 0, command.length());
+    }
+
+    /**
+     * Parses a console bid command from a range of characters.
+     *
+     * @param command the characters containing the command
+     * @param start   the position of the first character of the command
+     * @param end     the position after the last character of the command
+     * @return true if the command is well formed, otherwise false
+     */
+    public boolean parseConsoleBid(CharSequence command, int start, int end) {
+        int bids = indexOf(command, BIDS, start, end);
+        if (bids <= start) {
+            return false;
+        }
+        usernameStart = start;
+        usernameEnd = bids;
+
+        int amountStart = bids + BIDS.length();
+        int on = indexOf(command, ON, amountStart, end);
+        int amountEnd = on < 0 ? end : on;
+        collectionId = -1;
+        if (on >= 0) {
+            int idStart = on + ON.length();
+            int idEnd = trimEnd(command, idStart, end);
+            if (!parseCollectionId(command, idStart, idEnd)) {
+                return false;
+            }
+        }
+        if (!parseAmount(command, amountStart, trimEnd(command, amountStart, amountEnd))) {
+            return false;
+        }
+        buyerIndexResult = buyerIndex.indexOf(command, usernameStart, usernameEnd);
+        return true;
+    }
+
+    /**
+     * Parses a network bid command, {@code BID [username] [collection ID] [amount]},
+     * from a range of bytes. A trailing carriage return or spaces are ignored.
+     *
+     * @param bytes the bytes containing the command
+     * @param start the position of the first byte of the command
+     * @param end   the position after the last byte of the command
+     * @return true if the command is well formed, otherwise false
+     */
+    public boolean parseNetworkBid(ByteBuffer bytes, int start, int end) {
+        while (end > start && (bytes.get(end - 1) == '\r' || bytes.get(end - 1) == ' ')) {
+            end--;
+        }
+        if (end - start < 4 || bytes.get(start) != 'B' || bytes.get(start + 1) != 'I' || bytes.get(start + 2) != 'D'
+                || bytes.get(start + 3) != ' ') {
+            return false;
+        }
+
+        usernameStart = start + 4;
+        usernameEnd = nextSpace(bytes, usernameStart, end);
+        int idStart = usernameEnd + 1;
+        int idEnd = nextSpace(bytes, idStart, end);
+        int amountStart = idEnd + 1;
+        if (usernameEnd == usernameStart || idEnd >= end || nextSpace(bytes, amountStart, end) != end) {
+            return false;
+        }
+
+        if (!parseCollectionId(bytes, idStart, idEnd) || !parseAmount(bytes, amountStart, end)) {
+            return false;
+        }
+        buyerIndexResult = buyerIndex.indexOf(bytes, usernameStart, usernameEnd);
+        return true;
+    }
+
+    /**
+     * Gets the index of the buyer of the last parsed command.
+     *
+     * @return the buyer index, or -1 if the username is not a known buyer
+     */
+    public int getBuyerIndex() {
+        return buyerIndexResult;
+    }
+
+    /**
+     * Gets the collection ID of the last parsed command.
+     *
+     * @return the collection ID, or -1 if the console command did not name a collection
+     */
+    public int getCollectionId() {
+        return collectionId;
+    }
+
+    /**
+     * Gets the amount of the last parsed command in cents.
+     *
+     * @return the amount in cents
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Gets the username of the last parsed console command. This creates a String and is
+     * meant for messages only.
+     *
+     * @param command the command that was parsed last
+     * @return the username in the command
+     */
+    public String getUsername(CharSequence command) {
+        return command.subSequence(usernameStart, usernameEnd).toString();
+    }
+
+    /**
+     * Parses a decimal amount into cents, rounding half up on the third decimal like
+     * {@link Money#toCents(double)}.
+     *
+     * @param chars the characters containing the amount
+     * @param start the position of the first character of the amount
+     * @param end   the position after the last character of the amount
+     * @return true if the amount is well formed, otherwise false
+     */
+    private boolean parseAmount(CharSequence chars, int start, int end) {
+        amountCents = 0;
+        int decimals = -1;
+        int digits = 0;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || ++digits > MAX_AMOUNT_DIGITS) {
+                return false;
+            }
+            if (decimals < 2) {
+                amountCents = amountCents * 10 + (c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (decimals == 2) {
+                roundUp = c >= '5';
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        amountCents = scaleToCents(amountCents, decimals) + (roundUp ? 1 : 0);
+        return true;
+    }
+
+    /**
+     * Parses a collection ID.
+     *
+     * @param chars the characters containing the ID
+     * @param start the position of the first digit
+     * @param end   the position after the last digit
+     * @return true if the ID is well formed, otherwise false
+     */
+    private boolean parseCollectionId(CharSequence chars, int start, int end) {
+        if (end == start || end - start > 9) {
+            return false;
+        }
+        collectionId = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            collectionId = collectionId * 10 + (c - '0');
+        }
+        return true;
+    }
+
+    /**
+     * Parses a decimal amount from ASCII bytes into cents, rounding half up on the third
+     * decimal like {@link Money#toCents(double)}.
+     *
+     * @param bytes the bytes containing the amount
+     * @param start the position of the first byte of the amount
+     * @param end   the position after the last byte of the amount
+     * @return true if the amount is well formed, otherwise false
+     */
+    private boolean parseAmount(ByteBuffer bytes, int start, int end) {
+        amountCents = 0;
+        int decimals = -1;
+        int digits = 0;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || ++digits > MAX_AMOUNT_DIGITS) {
+                return false;
+            }
+            if (decimals < 2) {
+                amountCents = amountCents * 10 + (b - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (decimals == 2) {
+                roundUp = b >= '5';
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        amountCents = scaleToCents(amountCents, decimals) + (roundUp ? 1 : 0);
+        return true;
+    }
+
+    /**
+     * Parses a collection ID from ASCII bytes.
+     *
+     * @param bytes the bytes containing the ID
+     * @param start the position of the first digit
+     * @param end   the position after the last digit
+     * @return true if the ID is well formed, otherwise false
+     */
+    private boolean parseCollectionId(ByteBuffer bytes, int start, int end) {
+        if (end == start || end - start > 9) {
+            return false;
+        }
+        collectionId = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            if (b < '0' || b > '9') {
+                return false;
+            }
+            collectionId = collectionId * 10 + (b - '0');
+        }
+        return true;
+    }
+
+    /**
+     * Scales a parsed amount to cents.
+     *
+     * @param value    the digits parsed so far
+     * @param decimals the number of decimals parsed, or -1 if there was no decimal point;
+     *                 more than two means the amount was already in cents
+     * @return the amount in cents
+     */
+    private static long scaleToCents(long value, int decimals) {
+        if (decimals <= 0) {
+            return value * 100;
+        }
+        return decimals == 1 ? value * 10 : value;
+    }
+
+    /**
+     * Finds a substring in a range of characters.
+     *
+     * @param chars  the characters to search
+     * @param needle the substring to find
+     * @param start  the position to start searching at
+     * @param end    the position to stop searching at
+     * @return the position of the substring, or -1 if it was not found
+     */
+    private static int indexOf(CharSequence chars, String needle, int start, int end) {
+        for (int i = start; i + needle.length() <= end; i++) {
+            int j = 0;
+            while (j < needle.length() && chars.charAt(i + j) == needle.charAt(j)) {
+                j++;
+            }
+            if (j == needle.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of a range of characters without trailing spaces.
+     *
+     * @param chars the characters
+     * @param start the position of the first character
+     * @param end   the position after the last character
+     * @return the position after the last character that is not a space
+     */
+    private static int trimEnd(CharSequence chars, int start, int end) {
+        while (end > start && chars.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Finds the next space in a range of bytes.
+     *
+     * @param bytes the bytes to search
+     * @param start the position to start searching at
+     * @param end   the position to stop searching at
+     * @return the position of the next space, or end if there is none
+     */
+    private static int nextSpace(ByteBuffer bytes, int start, int end) {
+        int i = start;
+        while (i < end && bytes.get(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,546 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * The BidJournal class represents an append-only journal of auction events.
+ * Bids, sales, status changes, edited details of collections, registered and deleted
+ * collections and new users are written to the journal so that the auction can be rebuilt after a crash. Records from many threads are written by a single
+ * writer thread, which forces a whole batch of records to disk with one fsync
+ * (group commit).
+ */
+public class BidJournal implements Closeable {
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final String SEPARATOR = "\t";
+    private static final PendingRecord CLOSE = new PendingRecord(new byte[0]);
+
+    private Path path;
+    private FileChannel channel;
+    private LinkedBlockingQueue<PendingRecord> pendingRecords;
+    private Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * A record waiting to be written, together with the future completed once it is on disk.
+     */
+    private static class PendingRecord {
+        private final byte[] bytes;
+        private final CompletableFuture<Void> written;
+
+        private PendingRecord(byte[] bytes) {
+            this.bytes = bytes;
+            this.written = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * A request to empty the journal, completed once the journal file has been truncated.
+     */
+    private static class Checkpoint extends PendingRecord {
+        private Checkpoint() {
+            super(new byte[0]);
+        }
+    }
+
+    /**
+     * Private constructor to create a BidJournal object for an open file.
+     *
+     * @param path    the path of the journal file
+     * @param channel the channel used to append to the journal file
+     */
+    private BidJournal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+        this.pendingRecords = new LinkedBlockingQueue<>();
+        this.writerThread = new Thread(this::writeRecords, "bid-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Opens the journal file, creating it if it does not exist.
+     *
+     * @param fileName the name of the journal file
+     * @return the opened journal
+     * @throws IOException if the journal file cannot be opened
+     */
+    public static BidJournal open(String fileName) throws IOException {
+        Path path = Paths.get(fileName);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new BidJournal(path, channel);
+    }
+
+    /**
+     * Records an accepted bid.
+     *
+     * @param bidId         the ID of the bid
+     * @param buyerUsername the username of the buyer
+     * @param collectionId  the ID of the collection
+     * @param amountCents   the amount of the bid in cents
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logBid(int bidId, String buyerUsername, int collectionId, long amountCents) {
+        return append("BID", String.valueOf(bidId), buyerUsername, String.valueOf(collectionId),
+                String.valueOf(Money.toDollars(amountCents)));
+    }
+
+    /**
+     * Records the sale of a collection.
+     *
+     * @param collection the sold antique collection
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logSale(AntiqueCollection collection) {
+        return append("SALE", String.valueOf(collection.getAntiqueCollectionID()), collection.getBuyerUsername(),
+                String.valueOf(collection.getSoldPrice()));
+    }
+
+    /**
+     * Records a status change of a collection, together with its base price.
+     *
+     * @param collection the antique collection whose status changed
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logStatus(AntiqueCollection collection) {
+        return append("STATUS", String.valueOf(collection.getAntiqueCollectionID()), statusField(collection.getStatus()),
+                String.valueOf(collection.getBasePrice()));
+    }
+
+    /**
+     * Records that a bid written to the journal was rejected, because its collection closed
+     * before the bid could be offered to it.
+     *
+     * @param bidId        the ID of the bid
+     * @param collectionId the ID of the collection
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logVoidBid(int bidId, int collectionId) {
+        return append("VOID", String.valueOf(bidId), String.valueOf(collectionId));
+    }
+
+    /**
+     * Records a collection added to the antique collection list.
+     *
+     * @param collection the added antique collection
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logCollection(AntiqueCollection collection) {
+        return append("COLLECTION", String.valueOf(collection.getAntiqueCollectionID()), collection.getName(), collection.getType(),
+                String.valueOf(collection.getQuantity()), collection.getConditionDescription(), String.valueOf(collection.getBasePrice()),
+                statusField(collection.getStatus()), String.valueOf(collection.getSellerID()));
+    }
+
+    /**
+     * Records the edited details of a collection: its name, type, quantity, condition
+     * description and base price.
+     *
+     * @param collection the edited antique collection
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logDetails(AntiqueCollection collection) {
+        return append("EDIT", String.valueOf(collection.getAntiqueCollectionID()), collection.getName(), collection.getType(),
+                String.valueOf(collection.getQuantity()), collection.getConditionDescription(), String.valueOf(collection.getBasePrice()));
+    }
+
+    /**
+     * Records a collection removed from the antique collection list.
+     *
+     * @param collection the removed antique collection
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logDeletion(AntiqueCollection collection) {
+        return append("DELETE", String.valueOf(collection.getAntiqueCollectionID()));
+    }
+
+    /**
+     * Records a new seller or buyer.
+     *
+     * @param user the new user
+     * @return a future completed once the record is on disk
+     */
+    public CompletableFuture<Void> logUser(User user) {
+        return append("USER", String.valueOf(user.getUserId()), user.getRole(), user.getUsername(), user.getPassword(),
+                user.getName(), user.getAddress(), user.getContactInfo());
+    }
+
+    /**
+     * Empties the journal once everything in it is covered by a snapshot of the system.
+     * Records queued before the checkpoint are written and then discarded with the rest of
+     * the journal; records queued after it are kept.
+     *
+     * @throws IOException if the journal file cannot be truncated
+     */
+    public void checkpoint() throws IOException {
+        PendingRecord checkpoint = new Checkpoint();
+        if (closed) {
+            throw new IOException("Bid journal is closed.");
+        }
+        pendingRecords.add(checkpoint);
+        try {
+            checkpoint.written.join();
+        } catch (CompletionException e) {
+            throw new IOException("Error truncating bid journal: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Queues a record for the writer thread.
+     *
+     * @param fields the fields of the record
+     * @return a future completed once the record is on disk
+     */
+    private CompletableFuture<Void> append(String... fields) {
+        String[] escapedFields = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            escapedFields[i] = escape(fields[i]);
+        }
+        String record = String.join(SEPARATOR, escapedFields);
+        String line = record + SEPARATOR + checksum(record) + "\n";
+        PendingRecord pendingRecord = new PendingRecord(line.getBytes(StandardCharsets.UTF_8));
+        if (closed) {
+            pendingRecord.written.completeExceptionally(new IOException("Bid journal is closed."));
+        } else {
+            pendingRecords.add(pendingRecord);
+        }
+        return pendingRecord.written;
+    }
+
+    /**
+     * Writes queued records until the journal is closed. Every record queued while the
+     * previous batch was being forced to disk is written and forced together.
+     */
+    private void writeRecords() {
+        ArrayList<PendingRecord> batch = new ArrayList<>();
+        boolean closing = false;
+
+        while (!closing) {
+            try {
+                batch.add(pendingRecords.take());
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+            pendingRecords.drainTo(batch, MAX_BATCH_SIZE);
+            if (batch.remove(CLOSE)) {
+                closing = true;
+                pendingRecords.drainTo(batch);
+            }
+
+            // Records before a checkpoint are written before the journal is truncated
+            int start = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i) instanceof Checkpoint) {
+                    write(batch.subList(start, i));
+                    truncate(batch.get(i));
+                    start = i + 1;
+                }
+            }
+            write(batch.subList(start, batch.size()));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of records and forces them to disk with one fsync.
+     *
+     * @param batch the records to write
+     */
+    private void write(List<PendingRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (PendingRecord pendingRecord : batch) {
+            size += pendingRecord.bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (PendingRecord pendingRecord : batch) {
+            buffer.put(pendingRecord.bytes);
+        }
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            for (PendingRecord pendingRecord : batch) {
+                pendingRecord.written.complete(null);
+            }
+        } catch (IOException e) {
+            for (PendingRecord pendingRecord : batch) {
+                pendingRecord.written.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Truncates the journal file for a checkpoint.
+     *
+     * @param checkpoint the checkpoint request
+     */
+    private void truncate(PendingRecord checkpoint) {
+        try {
+            channel.truncate(0);
+            channel.force(true);
+            checkpoint.written.complete(null);
+        } catch (IOException e) {
+            checkpoint.written.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Rebuilds the auction state from the journal. New users and registered collections are
+     * added again and deleted collections removed, edited details and status changes are
+     * applied to the collections, sales are settled again and accepted bids are restored to the auction.
+     * Users and collections that are already in the lists are skipped, so records covered
+     * by the snapshot are not added twice. A record that was only partly written when the
+     * system stopped, and anything after it, is discarded. A complete record that cannot be
+     * read is reported and skipped, and the records after it are still replayed. This method
+     * must be called before anything else is written to the journal.
+     *
+     * @param auction               the auction to restore bids and sales to
+     * @param antiqueCollectionList the list of antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     * @return the number of records replayed
+     * @throws IOException if the journal file cannot be read
+     */
+    public int recover(Auction auction, AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) throws IOException {
+        int records = 0;
+        long validLength = 0;
+        int maxBidId = 0;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int checksumStart = line.lastIndexOf(SEPARATOR);
+                if (checksumStart < 0 || !line.substring(checksumStart + 1).equals(checksum(line.substring(0, checksumStart)))) {
+                    break;
+                }
+                String[] fields = line.substring(0, checksumStart).split(SEPARATOR, -1);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = unescape(fields[i]);
+                }
+
+                try {
+                    switch (fields[0]) {
+                        case "BID":
+                            Bid bid = new Bid(Integer.parseInt(fields[1]), fields[2], Integer.parseInt(fields[3]), Double.parseDouble(fields[4]));
+                            auction.restoreBid(bid);
+                            maxBidId = Math.max(maxBidId, bid.getBidID());
+                            break;
+                        case "SALE":
+                            AntiqueCollection soldCollection = antiqueCollectionList.getCollectionById(Integer.parseInt(fields[1]));
+                            if (soldCollection != null) {
+                                auction.restoreSale(soldCollection, fields[2], Double.parseDouble(fields[3]));
+                            }
+                            break;
+                        case "VOID":
+                            auction.voidRecoveredBid(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+                            break;
+                        case "COLLECTION":
+                            // The collection may already be in the snapshot if the system stopped before the checkpoint
+                            int collectionId = Integer.parseInt(fields[1]);
+                            if (!antiqueCollectionList.containsId(collectionId)) {
+                                antiqueCollectionList.addCollection(new AntiqueCollection(collectionId, fields[2], fields[3], Integer.parseInt(fields[4]),
+                                        fields[5], Double.parseDouble(fields[6]), parseStatus(fields[7]), Integer.parseInt(fields[8])));
+                            }
+                            break;
+                        case "EDIT":
+                            AntiqueCollection editedCollection = antiqueCollectionList.getCollectionById(Integer.parseInt(fields[1]));
+                            if (editedCollection != null) {
+                                int quantity = Integer.parseInt(fields[4]);
+                                double basePrice = Double.parseDouble(fields[6]);
+                                editedCollection.setName(fields[2]);
+                                editedCollection.setType(fields[3]);
+                                editedCollection.setQuantity(quantity);
+                                editedCollection.setConditionDescription(fields[5]);
+                                editedCollection.setBasePrice(basePrice);
+                            }
+                            break;
+                        case "DELETE":
+                            AntiqueCollection deletedCollection = antiqueCollectionList.getCollectionById(Integer.parseInt(fields[1]));
+                            if (deletedCollection != null) {
+                                antiqueCollectionList.removeCollection(deletedCollection);
+                            }
+                            break;
+                        case "USER":
+                            restoreUser(fields, sellerList, buyerList);
+                            break;
+                        case "STATUS":
+                            AntiqueCollection collection = antiqueCollectionList.getCollectionById(Integer.parseInt(fields[1]));
+                            Status status = parseStatus(fields[2]);
+                            // Sales are restored from SALE records, which also carry the buyer and price
+                            if (collection != null && status != Status.SOLD) {
+                                collection.setBasePrice(Double.parseDouble(fields[3]));
+                                collection.setStatus(status);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    records++;
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    // The record is complete, so the records after it are still valid
+                    System.out.println("Skipping unreadable journal record on line " + lineNumber + ": " + e.getMessage());
+                }
+
+                validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+
+        if (validLength < channel.size()) {
+            channel.truncate(validLength);
+        }
+        auction.finishRecovery();
+        IdAllocator.bids().ensureAbove(maxBidId);
+        return records;
+    }
+
+    /**
+     * Adds a user recovered from the journal to the list of its role, unless its username is already taken.
+     *
+     * @param fields     the fields of the USER record
+     * @param sellerList the list of sellers
+     * @param buyerList  the list of buyers
+     */
+    private static void restoreUser(String[] fields, SellerList sellerList, BuyerList buyerList) {
+        int userId = Integer.parseInt(fields[1]);
+        if (fields[2].equals("Seller")) {
+            sellerList.addSeller(new Seller(userId, fields[3], fields[4], fields[5], fields[6], fields[7]));
+        } else if (fields[2].equals("Buyer")) {
+            buyerList.addBuyer(new Buyer(userId, fields[3], fields[4], fields[5], fields[6], fields[7]));
+        }
+        IdAllocator.users().ensureAbove(userId);
+    }
+
+    /**
+     * Writes all queued records to disk and closes the journal.
+     *
+     * @throws IOException if the journal file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        pendingRecords.add(CLOSE);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+
+        // Fail records that were queued while the writer thread was stopping
+        PendingRecord pendingRecord;
+        while ((pendingRecord = pendingRecords.poll()) != null) {
+            pendingRecord.written.completeExceptionally(new IOException("Bid journal is closed."));
+        }
+    }
+
+    /**
+     * Converts the status of a collection to a field of a record.
+     *
+     * @param status the status, or null
+     * @return the name of the status, or an empty field if it is null
+     */
+    private static String statusField(Status status) {
+        return status == null ? "" : status.name();
+    }
+
+    /**
+     * Reverses {@link #statusField(Status)}.
+     *
+     * @param field the field
+     * @return the status, or null if the field is empty
+     */
+    private static Status parseStatus(String field) {
+        return field.isEmpty() ? null : Status.valueOf(field);
+    }
+
+    /**
+     * Escapes the separator, line breaks and backslashes in a field, so every record stays on one line.
+     *
+     * @param field the field
+     * @return the escaped field
+     */
+    private static String escape(String field) {
+        if (field == null) {
+            return "null";
+        }
+        if (field.indexOf('\\') < 0 && field.indexOf('\t') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        StringBuilder escaped = new StringBuilder(field.length() + 8);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+                    break;
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reverses {@link #escape(String)}.
+     *
+     * @param field the escaped field
+     * @return the original field
+     */
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder unescaped = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char escape = field.charAt(++i);
+            unescaped.append(escape == 't' ? '\t' : escape == 'n' ? '\n' : escape == 'r' ? '\r' : escape);
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * Computes the checksum used to detect partly written records.
+     *
+     * @param record the record without its checksum
+     * @return the checksum as a hexadecimal string
+     */
+    private static String checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,490 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The BidReplay class runs an auction without prompts from a file of recorded bid lines.
+ * Each line holds the same command a buyer would type during bidding, optionally preceded
+ * by a timestamp in epoch milliseconds or ISO-8601 format:
+ * <pre>
+ * [timestamp] [username] bids [amount]
+ * [timestamp] [username] bids [amount] on [collection ID]
+ * [timestamp] NEXT
+ * [timestamp] END
+ * </pre>
+ * In sequential mode the collections are opened one after another like in
+ * {@link Auction#startAuction}: bids go to the current collection, 'NEXT' sells it to the
+ * highest bidder and opens the next one, and 'END' closes it unsold and finishes the auction.
+ * In silent mode every collection is open from the start, bids name their collection, and
+ * all collections are sold at 'END'. The end of the file counts as 'END'.
+ */
+public class BidReplay {
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private Auction auction;
+    private BuyerList buyerList;
+    private BidCommandParser parser;
+    private boolean silent;
+    private boolean registerUnknownBuyers;
+
+    /**
+     * The Report class represents the outcome of a replay.
+     */
+    public static class Report {
+        private long lines;
+        private long elapsedNanos;
+        private long firstTimestamp = Long.MIN_VALUE;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long registeredBuyers;
+        private final long[] resultCounts = new long[BidResult.values().length];
+        private final LinkedHashMap<Integer, LotResult> lots = new LinkedHashMap<>();
+
+        /**
+         * Gets the number of lines read from the file, including blank lines.
+         *
+         * @return the number of lines
+         */
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * Gets the number of bids with the specified result.
+         *
+         * @param result the bid result
+         * @return the number of bids with the result
+         */
+        public long getCount(BidResult result) {
+            return resultCounts[result.ordinal()];
+        }
+
+        /**
+         * Gets the number of bid lines, whatever their result.
+         *
+         * @return the number of bids
+         */
+        public long getBids() {
+            long bids = 0;
+            for (long count : resultCounts) {
+                bids += count;
+            }
+            return bids;
+        }
+
+        /**
+         * Gets the wall-clock time the replay took.
+         *
+         * @return the elapsed time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the number of bids replayed per second.
+         *
+         * @return the throughput in bids per second
+         */
+        public double getBidsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getBids() * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Gets the time between the first and the last timestamp in the file.
+         *
+         * @return the recorded duration in milliseconds, or -1 if the file has no timestamps
+         */
+        public long getRecordedMillis() {
+            return firstTimestamp == Long.MIN_VALUE ? -1 : lastTimestamp - firstTimestamp;
+        }
+
+        /**
+         * Gets the number of buyers registered because they were not known yet.
+         *
+         * @return the number of registered buyers
+         */
+        public long getRegisteredBuyers() {
+            return registeredBuyers;
+        }
+
+        /**
+         * Gets the results of the collections in the order they were opened.
+         *
+         * @return the lot results
+         */
+        public List<LotResult> getLots() {
+            return Collections.unmodifiableList(new ArrayList<>(lots.values()));
+        }
+    }
+
+    /**
+     * The LotResult class represents the outcome of one collection in a replay.
+     */
+    public static class LotResult {
+        private final AntiqueCollection collection;
+        private long acceptedBids;
+        private long rejectedBids;
+        private Bid winningBid;
+
+        /**
+         * Constructs a LotResult object for the specified collection.
+         *
+         * @param collection the antique collection
+         */
+        private LotResult(AntiqueCollection collection) {
+            this.collection = collection;
+        }
+
+        /**
+         * Gets the collection of this lot.
+         *
+         * @return the antique collection
+         */
+        public AntiqueCollection getCollection() {
+            return collection;
+        }
+
+        /**
+         * Gets the number of accepted bids on this lot.
+         *
+         * @return the number of accepted bids
+         */
+        public long getAcceptedBids() {
+            return acceptedBids;
+        }
+
+        /**
+         * Gets the number of rejected bids on this lot.
+         *
+         * @return the number of rejected bids
+         */
+        public long getRejectedBids() {
+            return rejectedBids;
+        }
+
+        /**
+         * Gets the winning bid of this lot.
+         *
+         * @return the winning bid, or null if the lot was not sold
+         */
+        public Bid getWinningBid() {
+            return winningBid;
+        }
+    }
+
+    /**
+     * Constructs a BidReplay object that places bids in the specified auction.
+     *
+     * @param auction   the auction to replay bids in
+     * @param buyerList the list of buyers participating in the auction
+     */
+    public BidReplay(Auction auction, BuyerList buyerList) {
+        this.auction = auction;
+        this.buyerList = buyerList;
+        this.parser = new BidCommandParser(auction.getBuyerIndex());
+    }
+
+    /**
+     * Sets whether all collections are open at once instead of one after another.
+     *
+     * @param silent true for a silent auction, false for a sequential auction
+     */
+    public void setSilent(boolean silent) {
+        this.silent = silent;
+    }
+
+    /**
+     * Sets whether bidders that are not known buyers are registered as buyers, so a
+     * recorded event can be replayed without its user accounts.
+     *
+     * @param registerUnknownBuyers true to register unknown bidders, otherwise false
+     */
+    public void setRegisterUnknownBuyers(boolean registerUnknownBuyers) {
+        this.registerUnknownBuyers = registerUnknownBuyers;
+    }
+
+    /**
+     * Replays a file of bid lines against the specified collections and writes the
+     * auction results to the results file.
+     *
+     * @param file        the file of bid lines
+     * @param collections the collections to auction, in the order they are opened
+     * @return the report of the replay
+     * @throws IOException if the file cannot be read
+     */
+    public Report replay(Path file, List<AntiqueCollection> collections) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            int next = 0;
+            LotResult current = null;
+            if (silent) {
+                for (AntiqueCollection collection : collections) {
+                    open(collection, report);
+                }
+            } else {
+                while (current == null && next < collections.size()) {
+                    current = open(collections.get(next++), report);
+                }
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                report.lines++;
+                int commandStart = skipTimestamp(line, report);
+                if (commandStart < 0) {
+                    countInvalidBid(report);
+                    continue;
+                }
+                if (commandStart == line.length()) {
+                    continue;
+                }
+
+                if (isCommand(line, commandStart, "END")) {
+                    break;
+                } else if (isCommand(line, commandStart, "NEXT")) {
+                    if (silent) {
+                        countInvalidBid(report);
+                        continue;
+                    }
+                    if (current != null) {
+                        current.winningBid = auction.closeLot(current.collection.getAntiqueCollectionID());
+                        current = null;
+                    }
+                    while (current == null && next < collections.size()) {
+                        current = open(collections.get(next++), report);
+                    }
+                } else {
+                    placeBid(line, commandStart, current, report);
+                }
+            }
+
+            // Whatever is still open when bidding ends closes like it does at 'END'
+            if (silent) {
+                for (LotResult lot : report.lots.values()) {
+                    lot.winningBid = auction.closeLot(lot.collection.getAntiqueCollectionID());
+                }
+            } else if (current != null) {
+                auction.abandonLot(current.collection.getAntiqueCollectionID());
+            }
+        }
+
+        auction.saveResultsToFile();
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Displays the report of a replay.
+     *
+     * @param report the report to display
+     */
+    public void displayReport(Report report) {
+        System.out.println("Replay Results:");
+        System.out.println("---------------");
+        System.out.println("Lines read: " + report.getLines());
+        System.out.println("Bids replayed: " + report.getBids());
+        for (BidResult result : BidResult.values()) {
+            if (report.getCount(result) > 0) {
+                System.out.println("  " + result + ": " + report.getCount(result));
+            }
+        }
+        if (report.getRegisteredBuyers() > 0) {
+            System.out.println("Buyers registered: " + report.getRegisteredBuyers());
+        }
+        System.out.printf("Elapsed: %.3f s (%.0f bids/s)%n", report.getElapsedNanos() / 1e9, report.getBidsPerSecond());
+        System.out.println("Bid latency: " + auction.getMetrics().getBidLatency());
+        if (report.getRecordedMillis() >= 0) {
+            System.out.printf("Recorded duration: %.3f s%n", report.getRecordedMillis() / 1e3);
+        }
+        System.out.println("-------------------------------------");
+
+        for (LotResult lot : report.getLots()) {
+            System.out.println("Collection ID: " + lot.getCollection().getAntiqueCollectionID());
+            System.out.println("Collection name: " + lot.getCollection().getName());
+            System.out.println("Accepted bids: " + lot.getAcceptedBids() + ", rejected bids: " + lot.getRejectedBids());
+            if (lot.getWinningBid() != null) {
+                System.out.println("Sold to " + lot.getWinningBid().getBuyerUsername() + " for $" + lot.getWinningBid().getAmount());
+            } else {
+                System.out.println("Not sold");
+            }
+            System.out.println("-------------------------------------");
+        }
+        System.out.println("Total Revenue: $" + Money.toDollars(auction.getLedger().getTotalRevenueCents()));
+    }
+
+    /**
+     * Opens a collection for bidding and adds it to the report.
+     *
+     * @param collection the collection to open
+     * @param report     the report of the replay
+     * @return the result of the opened lot, or null if the collection could not be opened
+     */
+    private LotResult open(AntiqueCollection collection, Report report) {
+        if (!auction.openLot(collection)) {
+            return null; // Skip already sold collections
+        }
+        LotResult lot = new LotResult(collection);
+        report.lots.put(collection.getAntiqueCollectionID(), lot);
+        return lot;
+    }
+
+    /**
+     * Parses and places the bid on a line.
+     *
+     * @param line         the line
+     * @param commandStart the position of the bid command in the line
+     * @param current      the lot open in a sequential auction, or null
+     * @param report       the report of the replay
+     */
+    private void placeBid(String line, int commandStart, LotResult current, Report report) {
+        if (!parser.parseConsoleBid(line, commandStart, line.length())) {
+            countInvalidBid(report);
+            return;
+        }
+
+        int collectionId = parser.getCollectionId();
+        if (collectionId < 0) {
+            if (current == null) {
+                report.resultCounts[BidResult.LOT_NOT_OPEN.ordinal()]++;
+                return;
+            }
+            collectionId = current.collection.getAntiqueCollectionID();
+        }
+
+        int buyerIndex = parser.getBuyerIndex();
+        if (buyerIndex < 0 && registerUnknownBuyers) {
+            buyerIndex = registerBuyer(parser.getUsername(line), report);
+        }
+
+        BidResult result = auction.placeBid(buyerIndex, collectionId, parser.getAmountCents());
+        report.resultCounts[result.ordinal()]++;
+
+        LotResult lot = report.lots.get(collectionId);
+        if (lot != null) {
+            if (result == BidResult.ACCEPTED) {
+                lot.acceptedBids++;
+            } else {
+                lot.rejectedBids++;
+            }
+        }
+    }
+
+    /**
+     * Counts a line that is neither a valid bid nor a valid command.
+     *
+     * @param report the report of the replay
+     */
+    private void countInvalidBid(Report report) {
+        report.resultCounts[BidResult.INVALID_FORMAT.ordinal()]++;
+        auction.getMetrics().recordInvalidBid();
+    }
+
+    /**
+     * Registers a bidder that is not a known buyer.
+     *
+     * @param username the username of the bidder
+     * @param report   the report of the replay
+     * @return the buyer index of the bidder, or -1 if the username belongs to a seller
+     */
+    private int registerBuyer(String username, Report report) {
+        Buyer buyer = new Buyer(IdAllocator.users().nextId(), username, UUID.randomUUID().toString(), username, "", "");
+        if (buyerList.addBuyer(buyer)) {
+            report.registeredBuyers++;
+        }
+        return auction.getBuyerIndex().indexOf(username);
+    }
+
+    /**
+     * Skips the timestamp at the start of a line, if there is one, and records it in the report.
+     * The first word is a timestamp unless it is the username of a bid or the whole command.
+     *
+     * @param line   the line
+     * @param report the report of the replay
+     * @return the position of the command, or -1 if the timestamp is not valid
+     */
+    private static int skipTimestamp(String line, Report report) {
+        int start = skipSpaces(line, 0);
+        int wordEnd = start;
+        while (wordEnd < line.length() && !Character.isWhitespace(line.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        int commandStart = skipSpaces(line, wordEnd);
+        if (commandStart == line.length() || line.startsWith("bids ", commandStart)) {
+            return start;
+        }
+
+        long timestamp = parseTimestamp(line, start, wordEnd);
+        if (timestamp == Long.MIN_VALUE) {
+            return -1;
+        }
+        if (report.firstTimestamp == Long.MIN_VALUE) {
+            report.firstTimestamp = timestamp;
+        }
+        report.lastTimestamp = timestamp;
+        return commandStart;
+    }
+
+    /**
+     * Parses a timestamp in epoch milliseconds or ISO-8601 format.
+     *
+     * @param line  the line containing the timestamp
+     * @param start the position of the first character of the timestamp
+     * @param end   the position after the last character of the timestamp
+     * @return the timestamp in epoch milliseconds, or Long.MIN_VALUE if it is not valid
+     */
+    private static long parseTimestamp(String line, int start, int end) {
+        long millis = 0;
+        int i = start;
+        while (i < end && i - start < 18 && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            millis = millis * 10 + (line.charAt(i) - '0');
+            i++;
+        }
+        if (i == end) {
+            return millis;
+        }
+        try {
+            return Instant.parse(line.substring(start, end)).toEpochMilli();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Checks whether a line holds a single command word, ignoring case and trailing spaces.
+     *
+     * @param line    the line
+     * @param start   the position of the command
+     * @param command the command word
+     * @return true if the line holds the command, otherwise false
+     */
+    private static boolean isCommand(String line, int start, String command) {
+        return line.regionMatches(true, start, command, 0, command.length())
+                && skipSpaces(line, start + command.length()) == line.length();
+    }
+
+    /**
+     * Skips whitespace in a line.
+     *
+     * @param line  the line
+     * @param start the position to start at
+     * @return the position of the next character that is not whitespace, or the length of the line
+     */
+    private static int skipSpaces(String line, int start) {
+        int i = start;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * The BidResult enum represents the possible outcomes of placing a bid in the auction system.
+ */
+public enum BidResult {
+    /**
+     * The bid was accepted and recorded.
+     */
+    ACCEPTED,
+
+    /**
+     * The bid was rejected because no buyer with the given username exists.
+     */
+    UNKNOWN_BUYER,
+
+    /**
+     * The bid was rejected because the collection is not open for bidding.
+     */
+    LOT_NOT_OPEN,
+
+    /**
+     * The bid was rejected because the amount is below the base price of the collection.
+     */
+    BELOW_BASE_PRICE,
+
+    /**
+     * The bid was rejected because the collection closed while the bid was being placed.
+     */
+    LOT_CLOSED,
+
+    /**
+     * The bid was rejected because the bid command was not in a valid format.
+     */
+    INVALID_FORMAT,
+
+    /**
+     * The bid was rejected because it could not be written to the journal.
+     */
+    NOT_RECORDED
+}
@@ -0,0 +1,369 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The BidServer class accepts bids over TCP and places them in an auction.
+ * A single selector thread accepts connections and reads and writes all sockets without
+ * blocking, so thousands of bidders can stay connected at once. Each request is one line:
+ * <pre>
+ * BID [username] [collection ID] [amount]
+ * </pre>
+ * and is answered in order with {@code OK} or {@code ERR [reason]}, where the reason is the
+ * name of the {@link BidResult}. Request lines are parsed in place on the selector thread
+ * without creating strings. Bids are placed on a pool of worker threads, because placing
+ * a bid waits for the bid journal.
+ */
+public class BidServer implements Closeable {
+    private static final int WORKER_THREADS = 128;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_REQUESTS_IN_FLIGHT = 64;
+    private static final String INVALID_FORMAT_RESPONSE = "ERR " + BidResult.INVALID_FORMAT;
+
+    private Auction auction;
+    private BidCommandParser parser;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private ConcurrentLinkedQueue<Connection> connectionsToUpdate;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * The state of one bidder connection.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ArrayDeque<ByteBuffer> responses = new ArrayDeque<>();
+        private final AtomicInteger requestsInFlight = new AtomicInteger();
+        private CompletableFuture<Void> lastRequest = CompletableFuture.completedFuture(null);
+        private SelectionKey key;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Queues a response and asks the selector thread to write it.
+         *
+         * @param response the response line
+         */
+        private void respond(String response) {
+            synchronized (responses) {
+                responses.add(ByteBuffer.wrap((response + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+            requestsInFlight.decrementAndGet();
+            connectionsToUpdate.add(this);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Private constructor to create a BidServer object for an open server socket.
+     *
+     * @param auction       the auction to place bids in
+     * @param selector      the selector for all sockets
+     * @param serverChannel the listening server socket
+     */
+    private BidServer(Auction auction, Selector selector, ServerSocketChannel serverChannel) {
+        this.auction = auction;
+        this.parser = new BidCommandParser(auction.getBuyerIndex());
+        this.selector = selector;
+        this.serverChannel = serverChannel;
+        this.workers = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "bid-server-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connectionsToUpdate = new ConcurrentLinkedQueue<>();
+        this.selectorThread = new Thread(this::run, "bid-server-selector");
+        this.selectorThread.setDaemon(true);
+    }
+
+    /**
+     * Starts a bid server listening on the specified port.
+     *
+     * @param auction the auction to place bids in
+     * @param port    the port to listen on, or 0 for any free port
+     * @return the started bid server
+     * @throws IOException if the server socket cannot be opened
+     */
+    public static BidServer start(Auction auction, int port) throws IOException {
+        Selector selector = Selector.open();
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        BidServer server = new BidServer(auction, selector, serverChannel);
+        server.running = true;
+        server.selectorThread.start();
+        return server;
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting bids and closes all connections.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverChannel.close();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs the selector loop until the server is closed.
+     */
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                updateInterests();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read((Connection) key.attachment());
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write((Connection) key.attachment());
+                        }
+                    } catch (IOException e) {
+                        disconnect(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error in bid server: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                disconnect(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // The server is stopping anyway
+            }
+        }
+    }
+
+    /**
+     * Accepts all pending connections.
+     *
+     * @throws IOException if a connection cannot be accepted
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /**
+     * Reads from a connection, parses every complete request line in place and hands the
+     * bids to the workers. Requests of one connection are placed one after another, so
+     * responses keep their order.
+     *
+     * @param connection the connection to read from
+     * @throws IOException if the connection fails
+     */
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (connection.channel.read(buffer) < 0) {
+            disconnect(connection.key);
+            return;
+        }
+
+        long receivedNanos = System.nanoTime();
+        buffer.flip();
+        int lineStart = 0;
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                if (!isBlank(buffer, lineStart, i)) {
+                    if (parser.parseNetworkBid(buffer, lineStart, i)) {
+                        int buyerIndex = parser.getBuyerIndex();
+                        int collectionId = parser.getCollectionId();
+                        long amountCents = parser.getAmountCents();
+                        submit(connection, receivedNanos, () -> handle(buyerIndex, collectionId, amountCents));
+                    } else {
+                        auction.getMetrics().recordInvalidBid();
+                        submit(connection, receivedNanos, () -> INVALID_FORMAT_RESPONSE);
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        buffer.position(lineStart);
+        buffer.compact();
+
+        if (!buffer.hasRemaining()) {
+            // A request longer than the buffer can never be completed
+            disconnect(connection.key);
+        } else if (connection.requestsInFlight.get() >= MAX_REQUESTS_IN_FLIGHT) {
+            // Stop reading until the worker threads catch up with this connection
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Checks whether a request line contains only whitespace.
+     *
+     * @param buffer the buffer holding the line
+     * @param start  the position of the first byte of the line
+     * @param end    the position after the last byte of the line
+     * @return true if the line is blank, otherwise false
+     */
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\r' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Queues a request of a connection behind its previous request.
+     *
+     * @param connection    the connection that sent the request
+     * @param receivedNanos the time the request was read, from System.nanoTime
+     * @param request       the work that produces the response line
+     */
+    private void submit(Connection connection, long receivedNanos, Supplier<String> request) {
+        connection.requestsInFlight.incrementAndGet();
+        connection.lastRequest = connection.lastRequest.thenRunAsync(() -> {
+            String response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = "ERR INTERNAL_ERROR";
+            }
+            connection.respond(response);
+            auction.getMetrics().recordNetworkBid(System.nanoTime() - receivedNanos);
+        }, workers);
+    }
+
+    /**
+     * Places a parsed bid.
+     *
+     * @param buyerIndex   the index of the buyer, or -1 for an unknown buyer
+     * @param collectionId the ID of the collection
+     * @param amountCents  the amount of the bid in cents
+     * @return the response line
+     */
+    private String handle(int buyerIndex, int collectionId, long amountCents) {
+        BidResult result = auction.placeBid(buyerIndex, collectionId, amountCents);
+        return result == BidResult.ACCEPTED ? "OK" : "ERR " + result;
+    }
+
+    /**
+     * Writes queued responses to a connection.
+     *
+     * @param connection the connection to write to
+     * @throws IOException if the connection fails
+     */
+    private void write(Connection connection) throws IOException {
+        synchronized (connection.responses) {
+            while (!connection.responses.isEmpty()) {
+                ByteBuffer response = connection.responses.peek();
+                connection.channel.write(response);
+                if (response.hasRemaining()) {
+                    return; // The socket buffer is full; wait until it is writable again
+                }
+                connection.responses.poll();
+            }
+        }
+        updateInterest(connection);
+    }
+
+    /**
+     * Updates the interests of connections that have new responses queued.
+     */
+    private void updateInterests() {
+        Connection connection;
+        while ((connection = connectionsToUpdate.poll()) != null) {
+            updateInterest(connection);
+        }
+    }
+
+    /**
+     * Sets the interests of a connection: writing while responses are queued, and reading
+     * while the connection does not have too many requests in flight.
+     *
+     * @param connection the connection to update
+     */
+    private void updateInterest(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        int interests = 0;
+        if (connection.requestsInFlight.get() < MAX_REQUESTS_IN_FLIGHT) {
+            interests |= SelectionKey.OP_READ;
+        }
+        synchronized (connection.responses) {
+            if (!connection.responses.isEmpty()) {
+                interests |= SelectionKey.OP_WRITE;
+            }
+        }
+        connection.key.interestOps(interests);
+    }
+
+    /**
+     * Closes the socket of a selection key.
+     *
+     * @param key the selection key
+     */
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // The connection is being dropped anyway
+        }
+    }
+}
@@ -0,0 +1,247 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The BidStore class records the history of bids in columns of primitive arrays instead
+ * of one object per bid. Each bid occupies a slot holding its bid ID, the index of its buyer
+ * in the BuyerIndex, the collection ID and the amount in cents. Slots are claimed with an
+ * atomic counter and the columns grow in fixed-size chunks, so many threads can append at
+ * once without locking or copying. A slot becomes visible to readers once its bid ID is published.
+ */
+public class BidStore {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = Integer.MAX_VALUE / CHUNK_SIZE;
+    private static final VarHandle BID_IDS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private BuyerIndex buyerIndex;
+    private AtomicInteger size;
+    private AtomicReferenceArray<Chunk> chunks;
+
+    /**
+     * A fixed-size block of slots in each column.
+     */
+    private static class Chunk {
+        private final int[] bidIds = new int[CHUNK_SIZE];
+        private final int[] buyerIndexes = new int[CHUNK_SIZE];
+        private final int[] collectionIds = new int[CHUNK_SIZE];
+        private final long[] amounts = new long[CHUNK_SIZE];
+    }
+
+    /**
+     * The BidVisitor interface receives the fields of stored bids without creating Bid objects.
+     */
+    public interface BidVisitor {
+
+        /**
+         * Visits a stored bid.
+         *
+         * @param slot         the slot of the bid
+         * @param bidId        the ID of the bid
+         * @param buyerIndex   the index of the buyer in the BuyerIndex
+         * @param collectionId the ID of the collection
+         * @param amountCents  the amount of the bid in cents
+         */
+        void visit(int slot, int bidId, int buyerIndex, int collectionId, long amountCents);
+    }
+
+    /**
+     * Constructs an empty BidStore object.
+     *
+     * @param buyerIndex the index used to translate buyer indexes back to usernames
+     */
+    public BidStore(BuyerIndex buyerIndex) {
+        this.buyerIndex = buyerIndex;
+        this.size = new AtomicInteger();
+        this.chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    }
+
+    /**
+     * Appends a bid to the store.
+     *
+     * @param bidId        the ID of the bid, which must be positive
+     * @param buyerIndex   the index of the buyer in the BuyerIndex
+     * @param collectionId the ID of the collection
+     * @param amountCents  the amount of the bid in cents
+     * @return the slot of the bid
+     */
+    public int append(int bidId, int buyerIndex, int collectionId, long amountCents) {
+        int slot = size.getAndIncrement();
+        if (slot < 0 || (slot >>> CHUNK_SHIFT) >= MAX_CHUNKS) {
+            throw new IllegalStateException("Bid store is full.");
+        }
+        Chunk chunk = chunk(slot);
+        int offset = slot & CHUNK_MASK;
+        chunk.buyerIndexes[offset] = buyerIndex;
+        chunk.collectionIds[offset] = collectionId;
+        chunk.amounts[offset] = amountCents;
+        BID_IDS.setRelease(chunk.bidIds, offset, bidId);
+        return slot;
+    }
+
+    /**
+     * Marks a bid as void, for example because its collection closed before the bid was accepted.
+     * Void bids are skipped by all queries.
+     *
+     * @param slot the slot of the bid
+     */
+    public void voidBid(int slot) {
+        Chunk chunk = chunk(slot);
+        int offset = slot & CHUNK_MASK;
+        BID_IDS.setRelease(chunk.bidIds, offset, -Math.abs((int) BID_IDS.getAcquire(chunk.bidIds, offset)));
+    }
+
+    /**
+     * Returns the number of slots claimed so far, including void bids and bids still being written.
+     *
+     * @return the number of claimed slots
+     */
+    public int size() {
+        return Math.min(size.get(), MAX_CHUNKS * CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the amount of a bid in cents.
+     *
+     * @param slot the slot of the bid
+     * @return the amount of the bid in cents
+     */
+    public long amountAt(int slot) {
+        Chunk chunk = chunks.get(slot >>> CHUNK_SHIFT);
+        int offset = slot & CHUNK_MASK;
+        BID_IDS.getAcquire(chunk.bidIds, offset);
+        return chunk.amounts[offset];
+    }
+
+    /**
+     * Creates a Bid object for a stored bid.
+     *
+     * @param slot the slot of the bid
+     * @return the bid, or null if the slot is void or not yet written
+     */
+    public Bid bidAt(int slot) {
+        Chunk chunk = chunks.get(slot >>> CHUNK_SHIFT);
+        if (chunk == null) {
+            return null;
+        }
+        int offset = slot & CHUNK_MASK;
+        int bidId = (int) BID_IDS.getAcquire(chunk.bidIds, offset);
+        if (bidId <= 0) {
+            return null;
+        }
+        return new Bid(bidId, buyerIndex.usernameAt(chunk.buyerIndexes[offset]), chunk.collectionIds[offset],
+                Money.toDollars(chunk.amounts[offset]));
+    }
+
+    /**
+     * Visits every stored bid in the order the slots were claimed.
+     *
+     * @param visitor the visitor receiving each bid
+     */
+    public void forEach(BidVisitor visitor) {
+        int end = size();
+        for (int slot = 0; slot < end; slot++) {
+            Chunk chunk = chunks.get(slot >>> CHUNK_SHIFT);
+            if (chunk == null) {
+                slot |= CHUNK_MASK; // Skip a chunk that is still being allocated
+                continue;
+            }
+            int offset = slot & CHUNK_MASK;
+            int bidId = (int) BID_IDS.getAcquire(chunk.bidIds, offset);
+            if (bidId > 0) {
+                visitor.visit(slot, bidId, chunk.buyerIndexes[offset], chunk.collectionIds[offset], chunk.amounts[offset]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bids placed on a collection.
+     *
+     * @param collectionId the ID of the collection
+     * @return the number of bids on the collection
+     */
+    public int countForCollection(int collectionId) {
+        int[] count = new int[1];
+        forEach((slot, bidId, buyer, collection, amountCents) -> {
+            if (collection == collectionId) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns the highest bid placed on a collection. Ties are won by the earlier bid.
+     *
+     * @param collectionId the ID of the collection
+     * @return the highest bid, or null if no bid was placed on the collection
+     */
+    public Bid highestForCollection(int collectionId) {
+        int[] highestSlot = {-1};
+        long[] highestAmount = {Long.MIN_VALUE};
+        forEach((slot, bidId, buyer, collection, amountCents) -> {
+            if (collection == collectionId && amountCents > highestAmount[0]) {
+                highestSlot[0] = slot;
+                highestAmount[0] = amountCents;
+            }
+        });
+        return highestSlot[0] < 0 ? null : bidAt(highestSlot[0]);
+    }
+
+    /**
+     * Returns the bids placed on a collection.
+     *
+     * @param collectionId the ID of the collection
+     * @return the bids on the collection, in the order they were placed
+     */
+    public List<Bid> bidsForCollection(int collectionId) {
+        ArrayList<Bid> result = new ArrayList<>();
+        forEach((slot, bidId, buyer, collection, amountCents) -> {
+            if (collection == collectionId) {
+                result.add(bidAt(slot));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns the bids placed by a buyer.
+     *
+     * @param buyerUsername the username of the buyer
+     * @return the bids of the buyer, in the order they were placed
+     */
+    public List<Bid> bidsForBuyer(String buyerUsername) {
+        ArrayList<Bid> result = new ArrayList<>();
+        int index = buyerIndex.indexOf(buyerUsername);
+        if (index < 0) {
+            return result;
+        }
+        forEach((slot, bidId, buyer, collection, amountCents) -> {
+            if (buyer == index) {
+                result.add(bidAt(slot));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gets the chunk holding a slot, allocating it if this is the first slot written to it.
+     *
+     * @param slot the slot
+     * @return the chunk holding the slot
+     */
+    private Chunk chunk(int slot) {
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        Chunk chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new Chunk());
+            chunk = chunks.get(chunkIndex);
+        }
+        return chunk;
+    }
+}
@@ -1,18 +1,18 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
  * The Buyer class represents a buyer in the auction system.
- * It allows buyers to view collections, edit their profile,
+ * It allows buyers to view and search collections, edit their profile,
  * view purchased items, and view auction results.
  */
 public class Buyer extends User implements IProfileEditable, UserActions {
+    private static final int SEARCH_RESULTS = 20;
+
     private ArrayList<AntiqueCollection> purchasedItems;
-    private double totalDebt;
-    private static final String AUCTION_RESULTS_FILE = "auction_results.txt";
+    private Ledger ledger;
 
     /**
      * Constructs a Buyer object with the specified user details.
@@ -27,7 +27,6 @@ public class Buyer extends User implements IProfileEditable, UserActions {
     public Buyer(int userId, String username, String password, String name, String address, String contactInfo) {
         super(userId, username, password, "Buyer", name, address, contactInfo);
         this.purchasedItems = new ArrayList<>();
-        this.totalDebt = 0.0;
     }
 
     /**
@@ -39,6 +38,8 @@ public class Buyer extends User implements IProfileEditable, UserActions {
         System.out.println("b) Edit Profile Information Details");
         System.out.println("c) View purchased item(s) and total debt");
         System.out.println("d) View Auction Results");
+        System.out.println("e) Search Collections");
+        System.out.println("f) Browse Collections by Type and Price");
         System.out.println("-1 Logout");
     }
 
@@ -54,7 +55,7 @@ public class Buyer extends User implements IProfileEditable, UserActions {
     public void handleOption(String option, Scanner scanner, AntiqueCollectionList antiqueCollectionList, SellerList sellerList) {
         switch (option) {
             case "a":
-                viewCollections(sellerList.getSellers());
+                viewCollections(antiqueCollectionList, sellerList);
                 break;
             case "b":
                 editProfile();
@@ -65,6 +66,12 @@ public class Buyer extends User implements IProfileEditable, UserActions {
             case "d":
                 displayAuctionResultsFromFile();
                 break;
+            case "e":
+                searchCollections(scanner, antiqueCollectionList);
+                break;
+            case "f":
+                browseCollections(scanner, antiqueCollectionList);
+                break;
             case "-1":
                 logout();
                 break;
@@ -75,16 +82,93 @@ public class Buyer extends User implements IProfileEditable, UserActions {
     }
 
     /**
-     * Displays the auction results from the results file.
+     * Displays the auction results of the collections purchased by the buyer.
      */
     private void displayAuctionResultsFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(AUCTION_RESULTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading auction results from file: " + e.getMessage());
+        displayAuctionResults(page -> AuctionResultsReader.getInstance().getRecordsForBuyer(getUsername(), page, RESULTS_PAGE_SIZE));
+    }
+
+    /**
+     * Asks for keywords and displays the approved collections that match them best.
+     *
+     * @param scanner               the scanner for user input
+     * @param antiqueCollectionList the list of antique collections
+     */
+    private void searchCollections(Scanner scanner, AntiqueCollectionList antiqueCollectionList) {
+        System.out.print("Enter keywords: ");
+        String query = scanner.nextLine();
+        List<CollectionSearchIndex.Result> results = antiqueCollectionList.search(query, SEARCH_RESULTS);
+        if (results.isEmpty()) {
+            System.out.println("No collections match your search.");
+            return;
+        }
+
+        ArrayList<AntiqueCollection> collections = new ArrayList<>();
+        for (CollectionSearchIndex.Result result : results) {
+            collections.add(result.getCollection());
+        }
+        printCollections("Search Results:", collections);
+    }
+
+    /**
+     * Asks for a type and a price range and displays the approved collections that match,
+     * sorted by base price.
+     *
+     * @param scanner               the scanner for user input
+     * @param antiqueCollectionList the list of antique collections
+     */
+    private void browseCollections(Scanner scanner, AntiqueCollectionList antiqueCollectionList) {
+        Map<String, Integer> typeCounts = antiqueCollectionList.getTypeCounts(Status.APPROVED);
+        if (typeCounts.isEmpty()) {
+            System.out.println("No collections available for purchase.");
+            return;
+        }
+        System.out.println("Types:");
+        for (Map.Entry<String, Integer> typeCount : typeCounts.entrySet()) {
+            System.out.println(typeCount.getKey() + " (" + typeCount.getValue() + ")");
+        }
+
+        System.out.print("Type (press Enter for any type): ");
+        String type = scanner.nextLine().trim();
+        double minPrice;
+        double maxPrice;
+        try {
+            System.out.print("Lowest price (press Enter for no minimum): ");
+            String minInput = scanner.nextLine().trim();
+            minPrice = minInput.isEmpty() ? 0 : Double.parseDouble(minInput);
+            System.out.print("Highest price (press Enter for no maximum): ");
+            String maxInput = scanner.nextLine().trim();
+            maxPrice = maxInput.isEmpty() ? Double.MAX_VALUE : Double.parseDouble(maxInput);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid price format. Please enter a numeric value.");
+            return;
+        }
+        System.out.print("Show the (L)owest or (H)ighest prices first? ");
+        boolean highestFirst = scanner.nextLine().trim().equalsIgnoreCase("H");
+
+        List<AntiqueCollection> collections = antiqueCollectionList.findCollections(Status.APPROVED,
+                type.isEmpty() ? null : type, minPrice, maxPrice, highestFirst, SEARCH_RESULTS);
+        if (collections.isEmpty()) {
+            System.out.println("No collections match your filter.");
+            return;
+        }
+        printCollections("Collections:", collections);
+    }
+
+    /**
+     * Displays collections as they are listed to buyers.
+     *
+     * @param title       the title of the list
+     * @param collections the collections to display
+     */
+    private static void printCollections(String title, List<AntiqueCollection> collections) {
+        System.out.println();
+        System.out.println(title);
+        for (AntiqueCollection antiqueCollection : collections) {
+            byte[] listing = CollectionRenderCache.getInstance().render(antiqueCollection, CollectionRenderCache.View.LISTING);
+            System.out.write(listing, 0, listing.length);
+            System.out.println("-------------------------------");
+            System.out.println();
         }
     }
 
@@ -94,16 +178,36 @@ public class Buyer extends User implements IProfileEditable, UserActions {
      * @param item the purchased item to add
      */
     public void addPurchasedItem(AntiqueCollection item) {
-        purchasedItems.add(item);
+        synchronized (purchasedItems) {
+            purchasedItems.add(item);
+        }
     }
 
     /**
-     * Adds an amount to the buyer's total debt.
+     * Sets the ledger the buyer's debt is recorded in. This is done when the buyer is added to a buyer list.
      *
-     * @param amount the amount to add to the total debt
+     * @param ledger the ledger of the buyer list
      */
-    public void addToDebt(double amount) {
-        totalDebt += amount;
+    void setLedger(Ledger ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Returns the buyer's total debt.
+     *
+     * @return the total debt
+     */
+    public double getTotalDebt() {
+        return Money.toDollars(getTotalDebtCents());
+    }
+
+    /**
+     * Returns the buyer's total debt in cents, as recorded in the ledger of the buyer list.
+     *
+     * @return the total debt in cents, or 0 if the buyer is not in a buyer list
+     */
+    public long getTotalDebtCents() {
+        return ledger == null ? 0 : ledger.getBuyerDebtCents(getUsername());
     }
 
     /**
@@ -149,10 +253,12 @@ public class Buyer extends User implements IProfileEditable, UserActions {
      */
     public void viewPurchasedItems() {
         System.out.println("Purchased Items:");
-        for (AntiqueCollection item : purchasedItems) {
-            System.out.println(item);
+        synchronized (purchasedItems) {
+            for (AntiqueCollection item : purchasedItems) {
+                System.out.println(item);
+            }
         }
-        System.out.println("Total Debt: $" + totalDebt);
+        System.out.println("Total Debt: $" + getTotalDebt());
     }
 
     /**
@@ -0,0 +1,244 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The BuyerIndex class assigns a dense integer index to each buyer username, so that
+ * bids can refer to buyers by number instead of by username. Indexes are never reused:
+ * a removed buyer keeps its index, so the username of an old bid can still be looked up.
+ * Usernames are kept in an open-addressing hash table that can be searched with a range of
+ * characters or bytes, so a username in a bid command is resolved without creating a String.
+ * Lookups do not lock; only adding and removing buyers does.
+ */
+public class BuyerIndex {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle FLAGS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private volatile String[] usernames;
+    private volatile byte[] removed;
+    private volatile int[] table;
+    private int size;
+
+    /**
+     * Constructs an empty BuyerIndex object.
+     */
+    public BuyerIndex() {
+        this.usernames = new String[16];
+        this.removed = new byte[16];
+        this.table = new int[32];
+    }
+
+    /**
+     * Returns the index of a username, assigning a new index if the username is not indexed.
+     * A username that was removed gets its old index back.
+     *
+     * @param username the username of the buyer
+     * @return the index of the username
+     */
+    public synchronized int add(String username) {
+        int index = find(username, 0, username.length());
+        if (index >= 0) {
+            FLAGS.setRelease(removed, index, (byte) 0);
+            return index;
+        }
+
+        if (size == usernames.length) {
+            usernames = Arrays.copyOf(usernames, size * 2);
+            removed = Arrays.copyOf(removed, size * 2);
+        }
+        // Written before the slot is published, so readers of the slot see the username
+        usernames[size] = username;
+        if ((size + 1) * 2 > table.length) {
+            int[] newTable = new int[table.length * 2];
+            for (int i = 0; i < size; i++) {
+                insert(newTable, usernames[i].hashCode(), i);
+            }
+            table = newTable;
+        }
+        insert(table, username.hashCode(), size);
+        return size++;
+    }
+
+    /**
+     * Removes a username from the index. Its index is not reused.
+     *
+     * @param username the username of the buyer
+     */
+    public synchronized void remove(String username) {
+        int index = find(username, 0, username.length());
+        if (index >= 0) {
+            FLAGS.setRelease(removed, index, (byte) 1);
+        }
+    }
+
+    /**
+     * Returns the index of a username.
+     *
+     * @param username the username of the buyer
+     * @return the index of the username, or -1 if the username is not indexed
+     */
+    public int indexOf(String username) {
+        return indexOf(username, 0, username.length());
+    }
+
+    /**
+     * Returns the index of the username in a range of characters, without creating a String.
+     *
+     * @param chars the characters containing the username
+     * @param start the position of the first character of the username
+     * @param end   the position after the last character of the username
+     * @return the index of the username, or -1 if the username is not indexed
+     */
+    public int indexOf(CharSequence chars, int start, int end) {
+        int index = find(chars, start, end);
+        return index >= 0 && (byte) FLAGS.getAcquire(removed, index) == 0 ? index : -1;
+    }
+
+    /**
+     * Returns the index of the UTF-8 encoded username in a range of bytes. ASCII usernames
+     * are resolved without creating a String.
+     *
+     * @param bytes the bytes containing the username
+     * @param start the position of the first byte of the username
+     * @param end   the position after the last byte of the username
+     * @return the index of the username, or -1 if the username is not indexed
+     */
+    public int indexOf(ByteBuffer bytes, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            if (b < 0) {
+                // Not ASCII, so the bytes do not map one to one onto characters
+                byte[] encoded = new byte[end - start];
+                for (int j = 0; j < encoded.length; j++) {
+                    encoded[j] = bytes.get(start + j);
+                }
+                return indexOf(new String(encoded, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + b;
+        }
+
+        int[] currentTable = table;
+        int mask = currentTable.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = (int) SLOTS.getAcquire(currentTable, slot);
+            if (entry == 0) {
+                return -1;
+            }
+            int index = entry - 1;
+            String username = usernames[index];
+            if (username.length() == end - start && matches(username, bytes, start)) {
+                return (byte) FLAGS.getAcquire(removed, index) == 0 ? index : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the username with the specified index.
+     *
+     * @param index the index of the username
+     * @return the username with the specified index
+     */
+    public String usernameAt(int index) {
+        return usernames[index];
+    }
+
+    /**
+     * Returns the number of indexes that have been assigned.
+     *
+     * @return the number of assigned indexes
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the index of a username in a range of characters, including removed usernames.
+     *
+     * @param chars the characters containing the username
+     * @param start the position of the first character of the username
+     * @param end   the position after the last character of the username
+     * @return the index of the username, or -1 if the username was never indexed
+     */
+    private int find(CharSequence chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+
+        int[] currentTable = table;
+        int mask = currentTable.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = (int) SLOTS.getAcquire(currentTable, slot);
+            if (entry == 0) {
+                return -1;
+            }
+            String username = usernames[entry - 1];
+            if (username.length() == end - start && matches(username, chars, start)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Publishes an index in a hash table, using linear probing.
+     *
+     * @param targetTable the hash table
+     * @param hash        the hash code of the username
+     * @param index       the index of the username
+     */
+    private static void insert(int[] targetTable, int hash, int index) {
+        int mask = targetTable.length - 1;
+        int slot = spread(hash) & mask;
+        while (targetTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        SLOTS.setRelease(targetTable, slot, index + 1);
+    }
+
+    /**
+     * Spreads the bits of a hash code so that similar usernames land in different slots.
+     *
+     * @param hash the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compares a username with a range of characters of the same length.
+     *
+     * @param username the username
+     * @param chars    the characters to compare with
+     * @param start    the position of the first character to compare
+     * @return true if the characters spell the username, otherwise false
+     */
+    private static boolean matches(String username, CharSequence chars, int start) {
+        for (int i = 0; i < username.length(); i++) {
+            if (username.charAt(i) != chars.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares a username with a range of ASCII bytes of the same length.
+     *
+     * @param username the username
+     * @param bytes    the bytes to compare with
+     * @param start    the position of the first byte to compare
+     * @return true if the bytes spell the username, otherwise false
+     */
+    private static boolean matches(String username, ByteBuffer bytes, int start) {
+        for (int i = 0; i < username.length(); i++) {
+            if (username.charAt(i) != bytes.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -6,6 +6,9 @@ import java.util.ArrayList;
  */
 public class BuyerList {
     private ArrayList<Buyer> buyers;
+    private UserDirectory userDirectory;
+    private BuyerIndex buyerIndex;
+    private Ledger ledger;
 
     /**
      * Constructs a BuyerList object.
@@ -13,15 +16,36 @@ public class BuyerList {
      */
     public BuyerList() {
         this.buyers = new ArrayList<>();
+        this.userDirectory = UserDirectory.getInstance();
+        this.buyerIndex = new BuyerIndex();
+        this.ledger = new Ledger();
     }
 
     /**
-     * Adds a buyer to the list.
+     * Adds a buyer to the list and registers its username in the user directory.
      *
      * @param buyer the buyer to be added
+     * @return true if the buyer was added, false if the username is already taken
      */
-    public void addBuyer(Buyer buyer) {
-        buyers.add(buyer);
+    public boolean addBuyer(Buyer buyer) {
+        if (!userDirectory.register(buyer)) {
+            return false;
+        }
+        synchronized (buyers) {
+            buyers.add(buyer);
+        }
+        buyerIndex.add(buyer.getUsername());
+        buyer.setLedger(ledger);
+        return true;
+    }
+
+    /**
+     * Returns the ledger recording the sales to the buyers in the list and their debt.
+     *
+     * @return the ledger
+     */
+    public Ledger getLedger() {
+        return ledger;
     }
 
     /**
@@ -30,7 +54,11 @@ public class BuyerList {
      * @param buyer the buyer to be removed
      */
     public void removeBuyer(Buyer buyer) {
-        buyers.remove(buyer);
+        synchronized (buyers) {
+            buyers.remove(buyer);
+        }
+        buyerIndex.remove(buyer.getUsername());
+        userDirectory.unregister(buyer);
     }
 
     /**
@@ -49,27 +77,32 @@ public class BuyerList {
      * @return true if the username exists, false otherwise
      */
     public boolean usernameExists(String username) {
-        for (Buyer buyer : buyers) {
-            if (buyer.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return username != null && buyerIndex.indexOf(username) >= 0;
     }
 
     /**
-     * Returns the buyer with the specified username.
+     * Returns the buyer with the specified username. Only buyers in this list are found; the
+     * user directory, which holds the users of every list, is only used to fetch the buyer
+     * once the buyer index has found the username.
      *
      * @param username the username of the buyer to find
      * @return the buyer with the specified username, or null if not found
      */
     public Buyer getBuyerByUsername(String username) {
-        for (Buyer buyer : buyers) {
-            if (buyer.getUsername().equals(username)) {
-                return buyer;
-            }
+        if (!usernameExists(username)) {
+            return null;
         }
-        return null;
+        User user = userDirectory.getUser(username);
+        return user instanceof Buyer ? (Buyer) user : null;
+    }
+
+    /**
+     * Returns the index that numbers the buyers in the list.
+     *
+     * @return the buyer index
+     */
+    public BuyerIndex getBuyerIndex() {
+        return buyerIndex;
     }
 
     /**
@@ -0,0 +1,55 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CatalogPage class represents one page of antique collections listed in ID order.
+ * The next page is requested with the cursor of the page, which is the ID of its last
+ * collection, so pages stay stable while collections are added or change status.
+ */
+public class CatalogPage {
+    /**
+     * The cursor to request the first page with.
+     */
+    public static final int START = Integer.MIN_VALUE;
+
+    private List<AntiqueCollection> collections;
+    private boolean hasNext;
+
+    /**
+     * Constructs a CatalogPage object.
+     *
+     * @param collections the collections on the page, in ID order
+     * @param hasNext     whether there are collections after this page
+     */
+    public CatalogPage(List<AntiqueCollection> collections, boolean hasNext) {
+        this.collections = Collections.unmodifiableList(collections);
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Gets the collections on the page.
+     *
+     * @return the collections on the page, in ID order
+     */
+    public List<AntiqueCollection> getCollections() {
+        return collections;
+    }
+
+    /**
+     * Checks whether there are collections after this page.
+     *
+     * @return true if there is a next page, otherwise false
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Gets the cursor to request the next page with.
+     *
+     * @return the ID of the last collection on the page, or START if the page is empty
+     */
+    public int getNextCursor() {
+        return collections.isEmpty() ? START : collections.get(collections.size() - 1).getAntiqueCollectionID();
+    }
+}
@@ -1,7 +1,9 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -10,10 +12,10 @@ import java.util.Scanner;
  * start auctions, and view auction results. This class is implemented as a singleton.
  */
 public class CharityLeader extends User implements IAntiqueCollectionEditable, UserActions {
+    private static final int REVIEW_BATCH_SIZE = 20;
     private static CharityLeader instance;
     private AntiqueCollectionList antiqueCollectionList;
     private Auction auction;
-    private static final String AUCTION_RESULTS_FILE = "auction_results.txt";
 
     /**
      * Private constructor to create the singleton instance of CharityLeader.
@@ -41,10 +43,20 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
     public static CharityLeader getInstance(BuyerList buyerList) {
         if (instance == null) {
             instance = new CharityLeader(100, "z", "z", "Zeynep", "10 Charity Ave", "zeynep@example.com", buyerList);
+            UserDirectory.getInstance().register(instance);
         }
         return instance;
     }
 
+    /**
+     * Gets the auction run by the charity leader.
+     *
+     * @return the auction
+     */
+    public Auction getAuction() {
+        return auction;
+    }
+
     /**
      * Displays the charity leader's menu options.
      */
@@ -69,7 +81,7 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
     public void handleOption(String option, Scanner scanner, AntiqueCollectionList antiqueCollectionList, SellerList sellerList) {
         switch (option) {
             case "a":
-                viewCollections(sellerList.getSellers());
+                viewCollections(antiqueCollectionList, sellerList);
                 break;
             case "b":
                 approveOrDisapproveCollections();
@@ -90,16 +102,13 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
     }
 
     /**
-     * Displays the auction results from the results file.
+     * Displays all auction results, followed by the total revenue.
      */
     private void displayAuctionResultsFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(AUCTION_RESULTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading auction results from file: " + e.getMessage());
+        displayAuctionResults(page -> AuctionResultsReader.getInstance().getRecords(page, RESULTS_PAGE_SIZE));
+        String totalRevenueLine = AuctionResultsReader.getInstance().getTotalRevenueLine();
+        if (totalRevenueLine != null) {
+            System.out.println(totalRevenueLine);
         }
     }
 
@@ -130,8 +139,8 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
             return;
         }
 
-        antiqueCollectionToApprove.setStatus(Status.APPROVED);
         antiqueCollectionToApprove.setBasePrice(basePrice);
+        antiqueCollectionToApprove.setStatus(Status.APPROVED);
         System.out.println("Collection approved successfully.");
     }
 
@@ -152,6 +161,42 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
         System.out.println("Collection disapproved successfully.");
     }
 
+    /**
+     * Approves several antique collections at once by setting their base prices.
+     *
+     * @param basePrices the base price to be set for each antique collection, by collection ID
+     */
+    @Override
+    public void approveAntiqueCollections(Map<Integer, Double> basePrices) {
+        List<Integer> rejectedIds = antiqueCollectionList.approveCollections(basePrices);
+        printBatchResult("approved", basePrices.size(), rejectedIds);
+    }
+
+    /**
+     * Disapproves several antique collections at once.
+     *
+     * @param ids the IDs of the antique collections
+     */
+    @Override
+    public void disapproveAntiqueCollections(Collection<Integer> ids) {
+        List<Integer> rejectedIds = antiqueCollectionList.disapproveCollections(ids);
+        printBatchResult("disapproved", ids.size(), rejectedIds);
+    }
+
+    /**
+     * Prints how many collections of a batch were approved or disapproved, and which were skipped.
+     *
+     * @param action      the action applied to the collections
+     * @param requested   the number of collections in the batch
+     * @param rejectedIds the IDs of the collections that were not pending approval
+     */
+    private void printBatchResult(String action, int requested, List<Integer> rejectedIds) {
+        System.out.println((requested - rejectedIds.size()) + " collection(s) " + action + " successfully.");
+        if (!rejectedIds.isEmpty()) {
+            System.out.println("Invalid collection ID or collection is not pending approval: " + rejectedIds);
+        }
+    }
+
     /**
      * Sets the base price for an antique collection.
      *
@@ -172,51 +217,127 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
 
     /**
      * Approves or disapproves pending collections by taking input from the charity leader.
+     * Pending collections are shown a batch at a time, oldest submission first, and the batch
+     * is only shown again after collections have been approved or disapproved. Several
+     * collections can be approved with 'A' followed by ID=base price pairs, or disapproved
+     * with 'D' followed by their IDs.
      */
     public void approveOrDisapproveCollections() {
         Scanner scanner = new Scanner(System.in);
+        boolean showPending = true;
 
         while (hasPendingCollections()) {
-            System.out.println("Pending Collections:");
-            for (AntiqueCollection antiqueCollection : antiqueCollectionList.getAntiqueCollections()) {
-                if (antiqueCollection.getStatus().equals(Status.PENDING)) {
-                    System.out.println(antiqueCollection);
-                }
+            if (showPending) {
+                printPendingCollections();
+                showPending = false;
             }
 
-            System.out.println("Enter the ID number of the collection to approve or disapprove (or enter -1 to exit):");
-            int id = scanner.nextInt();
-            scanner.nextLine();
+            System.out.println("Enter the ID number of the collection to approve or disapprove, 'A <ID>=<base price> ...' to approve several,");
+            System.out.println("'D <ID> ...' to disapprove several (or enter -1 to exit):");
+            String[] tokens = scanner.nextLine().trim().split("\\s+");
 
-            if (id == -1) { // Exit if -1 is entered
+            if (tokens[0].equals("-1")) { // Exit if -1 is entered
                 break;
             }
 
-            AntiqueCollection antiqueCollectionToApprove = antiqueCollectionList.getCollectionById(id);
-            if (antiqueCollectionToApprove == null || !antiqueCollectionToApprove.getStatus().equals(Status.PENDING)) {
-                System.out.println("Invalid collection ID or collection is not pending approval.");
-                continue;
+            try {
+                switch (tokens[0].toUpperCase()) {
+                    case "A":
+                        approveAntiqueCollections(parseBasePrices(tokens));
+                        showPending = true;
+                        break;
+                    case "D":
+                        disapproveAntiqueCollections(parseIds(tokens));
+                        showPending = true;
+                        break;
+                    default:
+                        showPending = reviewCollection(scanner, Integer.parseInt(tokens[0]));
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter collection IDs and base prices as numbers.");
             }
+        }
+        System.out.println("No more pending collections to approve or disapprove.");
+    }
+
+    /**
+     * Prints the batch of pending collections that have waited longest for review.
+     */
+    private void printPendingCollections() {
+        System.out.println("Pending Collections (" + antiqueCollectionList.getPendingReviewCount() + " awaiting review):");
+        for (AntiqueCollection antiqueCollection : antiqueCollectionList.getPendingReview(REVIEW_BATCH_SIZE)) {
+            byte[] summary = CollectionRenderCache.getInstance().render(antiqueCollection, CollectionRenderCache.View.SUMMARY);
+            System.out.write(summary, 0, summary.length);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Approves or disapproves one pending collection by asking the charity leader for a decision.
+     *
+     * @param scanner the scanner for user input
+     * @param id      the ID of the collection
+     * @return true if the collection was approved or disapproved, otherwise false
+     * @throws NumberFormatException if the base price entered is not a number
+     */
+    private boolean reviewCollection(Scanner scanner, int id) {
+        AntiqueCollection antiqueCollectionToApprove = antiqueCollectionList.getCollectionById(id);
+        if (antiqueCollectionToApprove == null || !antiqueCollectionToApprove.getStatus().equals(Status.PENDING)) {
+            System.out.println("Invalid collection ID or collection is not pending approval.");
+            return false;
+        }
+
+        System.out.println("Do you want to approve or disapprove this collection? (A for approve / D for disapprove)");
+        String decision = scanner.nextLine().trim().toUpperCase();
+
+        switch (decision) {
+            case "A":
+                System.out.println("Enter the base price for the approved collection:");
+                double basePrice = Double.parseDouble(scanner.nextLine().trim());
+                approveAntiqueCollection(id, basePrice);
+                return true;
+            case "D":
+                disapproveAntiqueCollection(id);
+                return true;
+            default:
+                System.out.println("Invalid decision. Please enter 'A' for approve or 'D' for disapprove.");
+                return false;
+        }
+    }
 
-            System.out.println("Do you want to approve or disapprove this collection? (A for approve / D for disapprove)");
-            String decision = scanner.nextLine().toUpperCase();
-
-            switch (decision) {
-                case "A":
-                    System.out.println("Enter the base price for the approved collection:");
-                    double basePrice = scanner.nextDouble();
-                    scanner.nextLine();
-                    approveAntiqueCollection(id, basePrice);
-                    break;
-                case "D":
-                    disapproveAntiqueCollection(id);
-                    break;
-                default:
-                    System.out.println("Invalid decision. Please enter 'A' for approve or 'D' for disapprove.");
-                    break;
+    /**
+     * Parses the ID=base price pairs following an 'A' command.
+     *
+     * @param tokens the command and its arguments
+     * @return the base price of each collection, by collection ID, in the order entered
+     * @throws NumberFormatException if a pair is not an ID and a base price
+     */
+    private static Map<Integer, Double> parseBasePrices(String[] tokens) {
+        LinkedHashMap<Integer, Double> basePrices = new LinkedHashMap<>();
+        for (int i = 1; i < tokens.length; i++) {
+            int separator = tokens[i].indexOf('=');
+            if (separator < 0) {
+                throw new NumberFormatException(tokens[i]);
             }
+            basePrices.put(Integer.parseInt(tokens[i].substring(0, separator)), Double.parseDouble(tokens[i].substring(separator + 1)));
         }
-        System.out.println("No more pending collections to approve or disapprove.");
+        return basePrices;
+    }
+
+    /**
+     * Parses the IDs following a 'D' command.
+     *
+     * @param tokens the command and its arguments
+     * @return the collection IDs, in the order entered
+     * @throws NumberFormatException if an ID is not a number
+     */
+    private static Collection<Integer> parseIds(String[] tokens) {
+        LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+        for (int i = 1; i < tokens.length; i++) {
+            ids.add(Integer.parseInt(tokens[i]));
+        }
+        return ids;
     }
 
     /**
@@ -225,11 +346,6 @@ public class CharityLeader extends User implements IAntiqueCollectionEditable, U
      * @return true if there are pending collections, otherwise false
      */
     private boolean hasPendingCollections() {
-        for (AntiqueCollection antiqueCollection : antiqueCollectionList.getAntiqueCollections()) {
-            if (antiqueCollection.getStatus() == Status.PENDING) {
-                return true;
-            }
-        }
-        return false;
+        return antiqueCollectionList.hasCollectionsWithStatus(Status.PENDING);
     }
 }
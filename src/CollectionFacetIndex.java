@@ -0,0 +1,271 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The CollectionFacetIndex class indexes antique collections by status, type and price, so
+ * that buyers can filter the catalog by category and budget without a pass over every lot.
+ * For each status it keeps the collections sorted by base price, both across all types and
+ * per type, and it keeps sold collections sorted by sold price. The number of collections of
+ * each type is the size of its price index, so facet counts are read without counting.
+ * The index remembers the status, type and prices each collection was indexed with, so a
+ * collection can be re-indexed after any of them changed.
+ */
+public class CollectionFacetIndex {
+    private EnumMap<Status, PriceIndex> basePrices;
+    private EnumMap<Status, HashMap<String, PriceIndex>> basePricesByType;
+    private PriceIndex soldPrices;
+    private IdentityHashMap<AntiqueCollection, Entry> entries;
+
+    /**
+     * The values a collection was indexed with.
+     */
+    private static class Entry {
+        private final int id;
+        private final Status status;
+        private final String typeKey;
+        private final long basePriceCents;
+        private final long soldPriceCents;
+
+        /**
+         * Constructs an Entry object with the current values of a collection.
+         *
+         * @param collection the indexed collection
+         */
+        private Entry(AntiqueCollection collection) {
+            this.id = collection.getAntiqueCollectionID();
+            this.status = collection.getStatus();
+            this.typeKey = typeKey(collection.getType());
+            this.basePriceCents = Money.toCents(collection.getBasePrice());
+            this.soldPriceCents = Money.toCents(collection.getSoldPrice());
+        }
+    }
+
+    /**
+     * The key of a collection in a price index: its price, then its ID among collections with the same price.
+     */
+    private static class PriceKey implements Comparable<PriceKey> {
+        private final long priceCents;
+        private final int id;
+
+        /**
+         * Constructs a PriceKey object.
+         *
+         * @param priceCents the price in cents
+         * @param id         the ID of the collection
+         */
+        private PriceKey(long priceCents, int id) {
+            this.priceCents = priceCents;
+            this.id = id;
+        }
+
+        /**
+         * Compares this key to another key by price, then by ID.
+         *
+         * @param other the key to compare to
+         * @return a negative number, zero or a positive number if this key sorts before, with or after the other key
+         */
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = Long.compare(priceCents, other.priceCents);
+            return byPrice != 0 ? byPrice : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Collections sorted by a price in cents, and by ID among collections with the same price.
+     */
+    private static class PriceIndex {
+        private final String name;
+        private final TreeMap<PriceKey, AntiqueCollection> collections = new TreeMap<>();
+
+        /**
+         * Constructs an empty PriceIndex object.
+         *
+         * @param name the name of the facet the index is for
+         */
+        private PriceIndex(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Adds a collection to the index.
+         *
+         * @param priceCents the price to index the collection by, in cents
+         * @param id         the ID of the collection
+         * @param collection the collection
+         */
+        private void add(long priceCents, int id, AntiqueCollection collection) {
+            collections.put(new PriceKey(priceCents, id), collection);
+        }
+
+        /**
+         * Removes a collection from the index.
+         *
+         * @param priceCents the price the collection was indexed by, in cents
+         * @param id         the ID the collection was indexed with
+         */
+        private void remove(long priceCents, int id) {
+            collections.remove(new PriceKey(priceCents, id));
+        }
+
+        /**
+         * Gets the number of collections in the index.
+         *
+         * @return the number of indexed collections
+         */
+        private int size() {
+            return collections.size();
+        }
+
+        /**
+         * Adds the collections priced within a range to a list, cheapest or most expensive first.
+         *
+         * @param minCents     the lowest price in cents
+         * @param maxCents     the highest price in cents
+         * @param highestFirst whether to start with the most expensive collections
+         * @param limit        the maximum number of collections to add
+         * @param found        the list to add the collections to
+         */
+        private void collect(long minCents, long maxCents, boolean highestFirst, int limit, List<AntiqueCollection> found) {
+            NavigableMap<PriceKey, AntiqueCollection> range = collections.subMap(
+                    new PriceKey(minCents, Integer.MIN_VALUE), true, new PriceKey(maxCents, Integer.MAX_VALUE), true);
+            for (AntiqueCollection collection : (highestFirst ? range.descendingMap() : range).values()) {
+                if (found.size() >= limit) {
+                    return;
+                }
+                found.add(collection);
+            }
+        }
+    }
+
+    /**
+     * Constructs an empty CollectionFacetIndex object.
+     */
+    public CollectionFacetIndex() {
+        this.basePrices = new EnumMap<>(Status.class);
+        this.basePricesByType = new EnumMap<>(Status.class);
+        for (Status status : Status.values()) {
+            basePrices.put(status, new PriceIndex(status.name()));
+            basePricesByType.put(status, new HashMap<>());
+        }
+        this.soldPrices = new PriceIndex(Status.SOLD.name());
+        this.entries = new IdentityHashMap<>();
+    }
+
+    /**
+     * Adds a collection to the index, or re-indexes it with its current status, type and prices.
+     *
+     * @param collection the collection to index
+     */
+    public synchronized void update(AntiqueCollection collection) {
+        remove(collection);
+        Entry entry = new Entry(collection);
+        if (entry.status == null) {
+            return;
+        }
+
+        basePrices.get(entry.status).add(entry.basePriceCents, entry.id, collection);
+        if (entry.typeKey != null) {
+            basePricesByType.get(entry.status)
+                    .computeIfAbsent(entry.typeKey, key -> new PriceIndex(collection.getType().trim()))
+                    .add(entry.basePriceCents, entry.id, collection);
+        }
+        if (entry.status == Status.SOLD) {
+            soldPrices.add(entry.soldPriceCents, entry.id, collection);
+        }
+        entries.put(collection, entry);
+    }
+
+    /**
+     * Removes a collection from the index.
+     *
+     * @param collection the collection to remove
+     */
+    public synchronized void remove(AntiqueCollection collection) {
+        Entry entry = entries.remove(collection);
+        if (entry == null) {
+            return;
+        }
+
+        basePrices.get(entry.status).remove(entry.basePriceCents, entry.id);
+        if (entry.typeKey != null) {
+            HashMap<String, PriceIndex> byType = basePricesByType.get(entry.status);
+            PriceIndex ofType = byType.get(entry.typeKey);
+            ofType.remove(entry.basePriceCents, entry.id);
+            if (ofType.size() == 0) {
+                byType.remove(entry.typeKey);
+            }
+        }
+        if (entry.status == Status.SOLD) {
+            soldPrices.remove(entry.soldPriceCents, entry.id);
+        }
+    }
+
+    /**
+     * Finds the collections with a status and type whose base price is within a range.
+     *
+     * @param status       the status of the collections
+     * @param type         the type of the collections, ignoring case, or null for any type
+     * @param minPrice     the lowest base price
+     * @param maxPrice     the highest base price
+     * @param highestFirst whether to list the most expensive collections first instead of the cheapest
+     * @param limit        the maximum number of collections to return
+     * @return the matching collections sorted by base price
+     */
+    public synchronized List<AntiqueCollection> find(Status status, String type, double minPrice, double maxPrice, boolean highestFirst, int limit) {
+        ArrayList<AntiqueCollection> found = new ArrayList<>();
+        PriceIndex index = type == null ? basePrices.get(status) : basePricesByType.get(status).get(typeKey(type));
+        long minCents = Money.toCents(minPrice);
+        long maxCents = Money.toCents(maxPrice);
+        if (index != null && minCents <= maxCents) {
+            index.collect(minCents, maxCents, highestFirst, limit, found);
+        }
+        return found;
+    }
+
+    /**
+     * Finds the sold collections that fetched the highest prices.
+     *
+     * @param limit the maximum number of collections to return
+     * @return the sold collections, highest sold price first
+     */
+    public synchronized List<AntiqueCollection> getTopSales(int limit) {
+        ArrayList<AntiqueCollection> found = new ArrayList<>();
+        soldPrices.collect(Long.MIN_VALUE, Long.MAX_VALUE, true, limit, found);
+        return found;
+    }
+
+    /**
+     * Counts the collections of each type with a status.
+     *
+     * @param status the status of the collections
+     * @return the number of collections by type, sorted by type
+     */
+    public synchronized Map<String, Integer> getTypeCounts(Status status) {
+        TreeMap<String, Integer> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (PriceIndex ofType : basePricesByType.get(status).values()) {
+            counts.put(ofType.name, ofType.size());
+        }
+        return counts;
+    }
+
+    /**
+     * Normalizes a type so that types differing only in case or surrounding spaces match.
+     *
+     * @param type the type
+     * @return the normalized type, or null if there is no type
+     */
+    private static String typeKey(String type) {
+        if (type == null || type.trim().isEmpty()) {
+            return null;
+        }
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
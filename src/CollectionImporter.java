@@ -0,0 +1,617 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The CollectionImporter class registers antique collections for a seller in bulk from a CSV
+ * or JSON-lines file, such as the spreadsheet of an estate. Files ending in .jsonl or .json
+ * hold one JSON object per line; any other file is read as CSV with a header row. Both name
+ * the fields id, name, type, quantity and conditionDescription, ignoring case, spaces and
+ * underscores; the ID is optional and is allocated when it is missing.
+ * <p>
+ * The file is streamed in chunks of {@value #CHUNK_RECORDS} records. Chunks are parsed and
+ * validated in parallel on the common fork-join pool while the file is still being read, and
+ * only a few chunks are in flight at a time, so memory does not grow with the file. Parsed
+ * chunks are committed to the antique collection list in file order, one batch per chunk.
+ * Invalid records are skipped and reported with their line number, so one bad row does not
+ * stop the import. Imported collections are pending approval, like collections registered
+ * by hand.
+ */
+public class CollectionImporter {
+    private static final int CHUNK_RECORDS = 2048;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String[] FIELDS = {"id", "name", "type", "quantity", "conditionDescription"};
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int TYPE = 2;
+    private static final int QUANTITY = 3;
+    private static final int CONDITION_DESCRIPTION = 4;
+
+    private Path path;
+    private boolean jsonLines;
+    private int[] csvColumns;
+    private List<String> errors;
+    private int errorCount;
+
+    /**
+     * A record read from the file together with the line it starts on.
+     */
+    private static class RawRecord {
+        private final int line;
+        private final String text;
+
+        /**
+         * Constructs a RawRecord object.
+         *
+         * @param line the line number the record starts on
+         * @param text the text of the record
+         */
+        private RawRecord(int line, String text) {
+            this.line = line;
+            this.text = text;
+        }
+    }
+
+    /**
+     * A chunk of records after parsing: the valid collections and the errors of the invalid records.
+     */
+    private static class ParsedChunk {
+        private final List<AntiqueCollection> collections = new ArrayList<>();
+        private final IdentityHashMap<AntiqueCollection, Integer> lines = new IdentityHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a CollectionImporter object for a file.
+     *
+     * @param fileName the name of the CSV or JSON-lines file
+     */
+    public CollectionImporter(String fileName) {
+        this.path = Paths.get(fileName);
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        this.jsonLines = lowerCaseName.endsWith(".jsonl") || lowerCaseName.endsWith(".json");
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Imports the collections in the file and registers them to a seller. Records without
+     * an ID are given one from the collection ID allocator when they are committed, so
+     * allocated IDs follow the order of the file.
+     *
+     * @param seller                the seller the collections belong to
+     * @param antiqueCollectionList the list of antique collections
+     * @return the number of collections imported
+     * @throws IOException if the file cannot be found or read, or has no valid CSV header
+     */
+    public int importCollections(Seller seller, AntiqueCollectionList antiqueCollectionList) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("File not found: " + path);
+        }
+        int sellerId = seller.getUserId();
+        int maxInFlight = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2);
+        ArrayDeque<ForkJoinTask<ParsedChunk>> inFlight = new ArrayDeque<>();
+        int imported = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            int[] lineNumber = {0};
+            if (!jsonLines) {
+                String header = readRecord(reader, lineNumber);
+                if (header == null) {
+                    throw new IOException("The file is empty.");
+                }
+                csvColumns = parseHeader(header);
+            }
+
+            List<RawRecord> chunk = new ArrayList<>(CHUNK_RECORDS);
+            while (true) {
+                int line = lineNumber[0] + 1;
+                String record = readRecord(reader, lineNumber);
+                if (record != null && !record.trim().isEmpty()) {
+                    chunk.add(new RawRecord(line, record));
+                }
+                if (chunk.size() == CHUNK_RECORDS || (record == null && !chunk.isEmpty())) {
+                    List<RawRecord> records = chunk;
+                    inFlight.add(ForkJoinPool.commonPool().submit(() -> parseChunk(records, sellerId)));
+                    chunk = new ArrayList<>(CHUNK_RECORDS);
+                }
+                // Commit the oldest chunk once enough are in flight, so that chunks are committed in file order
+                while (inFlight.size() >= maxInFlight || (record == null && !inFlight.isEmpty())) {
+                    imported += commit(join(inFlight.poll()), antiqueCollectionList);
+                }
+                if (record == null) {
+                    break;
+                }
+            }
+        } finally {
+            for (ForkJoinTask<ParsedChunk> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Gets the errors of the records that were not imported, up to the first {@value #MAX_REPORTED_ERRORS}.
+     *
+     * @return the errors, each starting with the line of the record
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets the number of records that were not imported.
+     *
+     * @return the number of errors
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Waits for a chunk to be parsed.
+     *
+     * @param task the task parsing the chunk
+     * @return the parsed chunk
+     * @throws IOException if the chunk could not be parsed
+     */
+    private static ParsedChunk join(ForkJoinTask<ParsedChunk> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error parsing file: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Commits a parsed chunk to the antique collection list as one batch, allocating the
+     * IDs of collections that have none. The IDs given in the chunk are reserved first, so
+     * no allocated ID collides with them, and a collection whose allocated ID was taken in
+     * the meantime is given another one instead of being skipped.
+     *
+     * @param chunk                 the parsed chunk
+     * @param antiqueCollectionList the list of antique collections
+     * @return the number of collections added
+     */
+    private int commit(ParsedChunk chunk, AntiqueCollectionList antiqueCollectionList) {
+        for (String error : chunk.errors) {
+            addError(error);
+        }
+        for (AntiqueCollection collection : chunk.collections) {
+            if (collection.getAntiqueCollectionID() != 0) {
+                IdAllocator.collections().ensureAbove(collection.getAntiqueCollectionID());
+            }
+        }
+        Set<AntiqueCollection> allocated = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (AntiqueCollection collection : chunk.collections) {
+            if (collection.getAntiqueCollectionID() == 0) {
+                collection.setAntiqueCollectionID(IdAllocator.collections().nextId());
+                allocated.add(collection);
+            }
+        }
+        List<AntiqueCollection> skipped = antiqueCollectionList.addNewCollections(chunk.collections);
+        int added = chunk.collections.size() - skipped.size();
+        for (AntiqueCollection collection : skipped) {
+            if (allocated.contains(collection)) {
+                // Another collection took the allocated ID before the batch was added, so allocate another
+                do {
+                    collection.setAntiqueCollectionID(IdAllocator.collections().nextId());
+                } while (!antiqueCollectionList.addCollection(collection));
+                added++;
+            } else {
+                addError("Line " + chunk.lines.get(collection) + ": Collection ID " + collection.getAntiqueCollectionID() + " already exists.");
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Records an error, keeping only the first errors.
+     *
+     * @param error the error
+     */
+    private void addError(String error) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Parses and validates a chunk of records.
+     *
+     * @param records  the records of the chunk
+     * @param sellerId the ID of the seller the collections belong to
+     * @return the parsed chunk
+     */
+    private ParsedChunk parseChunk(List<RawRecord> records, int sellerId) {
+        ParsedChunk chunk = new ParsedChunk();
+        for (RawRecord record : records) {
+            try {
+                String[] fields = jsonLines ? parseJsonFields(record.text) : parseCsvFields(record.text);
+                AntiqueCollection collection = toCollection(fields, sellerId);
+                chunk.collections.add(collection);
+                chunk.lines.put(collection, record.line);
+            } catch (IllegalArgumentException e) {
+                chunk.errors.add("Line " + record.line + ": " + e.getMessage());
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Validates the fields of a record the same way as registering a collection by hand,
+     * and creates the collection.
+     *
+     * @param fields   the fields of the record, in the order of {@link #FIELDS}
+     * @param sellerId the ID of the seller the collection belongs to
+     * @return the collection, with ID 0 if the record has no ID
+     * @throws IllegalArgumentException if a field is missing or invalid
+     */
+    private static AntiqueCollection toCollection(String[] fields, int sellerId) {
+        int id = 0;
+        if (fields[ID] != null && !fields[ID].trim().isEmpty()) {
+            try {
+                id = Integer.parseInt(fields[ID].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid ID format. Please enter a numeric ID.");
+            }
+            if (id <= 0) {
+                throw new IllegalArgumentException("ID must be a positive integer.");
+            }
+        }
+        if (fields[NAME] == null || fields[NAME].isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty.");
+        }
+        if (fields[TYPE] == null || fields[TYPE].isEmpty()) {
+            throw new IllegalArgumentException("Type cannot be empty.");
+        }
+        int quantity;
+        try {
+            quantity = Integer.parseInt(fields[QUANTITY] == null ? "" : fields[QUANTITY].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity format. Please enter a numeric value.");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be a positive integer.");
+        }
+        if (fields[CONDITION_DESCRIPTION] == null || fields[CONDITION_DESCRIPTION].isEmpty()) {
+            throw new IllegalArgumentException("Condition Description cannot be empty.");
+        }
+        return new AntiqueCollection(id, fields[NAME], fields[TYPE], quantity, fields[CONDITION_DESCRIPTION], 0.0, Status.PENDING, sellerId);
+    }
+
+    /**
+     * Reads the next record from the file. A CSV record continues on the next line while a
+     * quoted value is open, so values may contain line breaks.
+     *
+     * @param reader     the reader of the file
+     * @param lineNumber the number of lines read so far, updated with the lines of the record
+     * @return the record, or null at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    private String readRecord(BufferedReader reader, int[] lineNumber) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber[0]++;
+        if (jsonLines || !hasOpenQuote(line, false)) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        boolean openQuote = true;
+        while (openQuote && (line = reader.readLine()) != null) {
+            lineNumber[0]++;
+            record.append('\n').append(line);
+            openQuote = hasOpenQuote(line, true);
+        }
+        return record.toString();
+    }
+
+    /**
+     * Checks whether a quoted CSV value is still open at the end of a line. Escaped quotes
+     * are written twice, so they do not change whether a value is open.
+     *
+     * @param line        the line
+     * @param openAtStart whether a quoted value was open at the start of the line
+     * @return true if a quoted value is open at the end of the line, otherwise false
+     */
+    private static boolean hasOpenQuote(String line, boolean openAtStart) {
+        boolean open = openAtStart;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Maps the columns of a CSV header to the fields of a collection.
+     *
+     * @param header the header row
+     * @return the field of each column, or -1 for columns that are not fields
+     * @throws IOException if a required column is missing
+     */
+    private static int[] parseHeader(String header) throws IOException {
+        List<String> columns = splitCsv(header);
+        int[] columnFields = new int[columns.size()];
+        boolean[] found = new boolean[FIELDS.length];
+        for (int i = 0; i < columns.size(); i++) {
+            columnFields[i] = fieldIndex(columns.get(i));
+            if (columnFields[i] >= 0) {
+                found[columnFields[i]] = true;
+            }
+        }
+        for (int field = NAME; field < FIELDS.length; field++) {
+            if (!found[field]) {
+                throw new IOException("The header row has no " + FIELDS[field] + " column.");
+            }
+        }
+        return columnFields;
+    }
+
+    /**
+     * Parses a CSV record into the fields of a collection.
+     *
+     * @param record the record
+     * @return the fields, in the order of {@link #FIELDS}
+     */
+    private String[] parseCsvFields(String record) {
+        List<String> values = splitCsv(record);
+        String[] fields = new String[FIELDS.length];
+        for (int i = 0; i < values.size() && i < csvColumns.length; i++) {
+            if (csvColumns[i] >= 0) {
+                fields[csvColumns[i]] = values.get(i);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Splits a CSV record into its values. Values may be quoted, and quotes inside a quoted
+     * value are written twice.
+     *
+     * @param record the record
+     * @return the values of the record
+     */
+    private static List<String> splitCsv(String record) {
+        ArrayList<String> values = new ArrayList<>(FIELDS.length);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Parses a flat JSON object into the fields of a collection. Members that are not fields are ignored.
+     *
+     * @param record the JSON object on one line
+     * @return the fields, in the order of {@link #FIELDS}
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    private static String[] parseJsonFields(String record) {
+        String[] fields = new String[FIELDS.length];
+        int[] position = {skipWhitespace(record, 0)};
+        expect(record, position, '{');
+        if (peek(record, position) == '}') {
+            position[0]++;
+        } else {
+            while (true) {
+                String key = readJsonString(record, position);
+                expect(record, position, ':');
+                String value = readJsonValue(record, position);
+                int field = fieldIndex(key);
+                if (field >= 0) {
+                    fields[field] = value;
+                }
+                char next = peek(record, position);
+                position[0]++;
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw new IllegalArgumentException("Invalid JSON: expected ',' or '}'.");
+                }
+            }
+        }
+        if (skipWhitespace(record, position[0]) != record.length()) {
+            throw new IllegalArgumentException("Invalid JSON: unexpected text after the object.");
+        }
+        return fields;
+    }
+
+    /**
+     * Reads a JSON value that is a string, a number, a boolean or null.
+     *
+     * @param record   the JSON text
+     * @param position the position to read from, moved past the value
+     * @return the value as text, or null for a JSON null
+     * @throws IllegalArgumentException if the value is not a string, number, boolean or null
+     */
+    private static String readJsonValue(String record, int[] position) {
+        char first = peek(record, position);
+        if (first == '"') {
+            return readJsonString(record, position);
+        }
+        if (first == '{' || first == '[') {
+            throw new IllegalArgumentException("Invalid JSON: nested values are not supported.");
+        }
+        int start = position[0];
+        int end = start;
+        while (end < record.length() && ",}".indexOf(record.charAt(end)) < 0 && !Character.isWhitespace(record.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            throw new IllegalArgumentException("Invalid JSON: missing value.");
+        }
+        position[0] = end;
+        String value = record.substring(start, end);
+        return value.equals("null") ? null : value;
+    }
+
+    /**
+     * Reads a JSON string.
+     *
+     * @param record   the JSON text
+     * @param position the position to read from, moved past the closing quote
+     * @return the string with its escapes decoded
+     * @throws IllegalArgumentException if there is no valid string at the position
+     */
+    private static String readJsonString(String record, int[] position) {
+        expect(record, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (i < record.length()) {
+            char c = record.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (i >= record.length()) {
+                break;
+            }
+            char escape = record.charAt(i++);
+            switch (escape) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 > record.length()) {
+                        throw new IllegalArgumentException("Invalid JSON: incomplete unicode escape.");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(record.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid JSON: invalid unicode escape.");
+                    }
+                    i += 4;
+                    break;
+                default:
+                    value.append(escape);
+                    break;
+            }
+        }
+        throw new IllegalArgumentException("Invalid JSON: unterminated string.");
+    }
+
+    /**
+     * Skips whitespace and checks that the next character is the expected one.
+     *
+     * @param record   the JSON text
+     * @param position the position to read from, moved past the expected character
+     * @param expected the expected character
+     * @throws IllegalArgumentException if the next character is a different one
+     */
+    private static void expect(String record, int[] position, char expected) {
+        if (peek(record, position) != expected) {
+            throw new IllegalArgumentException("Invalid JSON: expected '" + expected + "'.");
+        }
+        position[0]++;
+    }
+
+    /**
+     * Skips whitespace and gets the next character without reading past it.
+     *
+     * @param record   the JSON text
+     * @param position the position to read from, moved past the whitespace
+     * @return the next character
+     * @throws IllegalArgumentException if the end of the text has been reached
+     */
+    private static char peek(String record, int[] position) {
+        position[0] = skipWhitespace(record, position[0]);
+        if (position[0] >= record.length()) {
+            throw new IllegalArgumentException("Invalid JSON: unexpected end of line.");
+        }
+        return record.charAt(position[0]);
+    }
+
+    /**
+     * Finds the first character at or after a position that is not whitespace.
+     *
+     * @param text  the text
+     * @param start the position to start from
+     * @return the position of the first character that is not whitespace, or the length of the text
+     */
+    private static int skipWhitespace(String text, int start) {
+        int i = start;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the field a column or member name refers to, ignoring case, spaces and underscores.
+     *
+     * @param name the column or member name
+     * @return the index of the field in {@link #FIELDS}, or -1 if the name is not a field
+     */
+    private static int fieldIndex(String name) {
+        String normalized = name.replace(" ", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+        if (!normalized.isEmpty() && normalized.charAt(0) == '\uFEFF') {
+            // Spreadsheets often start the file with a byte order mark
+            normalized = normalized.substring(1);
+        }
+        for (int field = 0; field < FIELDS.length; field++) {
+            if (FIELDS[field].equalsIgnoreCase(normalized)) {
+                return field;
+            }
+        }
+        return -1;
+    }
+}
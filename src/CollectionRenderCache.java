@@ -0,0 +1,178 @@
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The CollectionRenderCache class keeps the console text of antique collections encoded as
+ * bytes, so listing the same collections again writes cached bytes instead of formatting
+ * every field again. Each entry remembers the version of the collection it was rendered
+ * from; any setter of the collection changes its version, which invalidates the entry of
+ * that collection only. The cache is bounded by the number of cached bytes and evicts the
+ * least recently rendered collections first.
+ */
+public class CollectionRenderCache {
+    /**
+     * The system property holding the number of bytes the cache may hold.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "auction.renderCache.bytes";
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static CollectionRenderCache instance;
+
+    private long maxCachedBytes;
+    private LinkedHashMap<AntiqueCollection, Entry> entries;
+    private long cachedBytes;
+
+    /**
+     * The ways a collection is shown on the console.
+     */
+    public enum View {
+        /**
+         * All details of a collection, one per line, as shown to sellers and the charity leader.
+         */
+        DETAILS,
+        /**
+         * The details buyers see in the catalog, one per line.
+         */
+        LISTING,
+        /**
+         * All details of a collection on one line, without a line separator.
+         */
+        SUMMARY
+    }
+
+    /**
+     * The rendered views of one version of a collection.
+     */
+    private static class Entry {
+        private final int version;
+        private final byte[][] views = new byte[View.values().length][];
+        private long size;
+
+        /**
+         * Constructs an Entry object with no rendered views.
+         *
+         * @param version the version of the collection the views are rendered from
+         */
+        private Entry(int version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Private constructor to create a CollectionRenderCache object with the size set in the system properties.
+     */
+    private CollectionRenderCache() {
+        this.maxCachedBytes = Long.getLong(CACHE_SIZE_PROPERTY, 32L * 1024 * 1024);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets the instance of the CollectionRenderCache class.
+     *
+     * @return the instance of the CollectionRenderCache class
+     */
+    public static synchronized CollectionRenderCache getInstance() {
+        if (instance == null) {
+            instance = new CollectionRenderCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a view of a collection encoded in the default charset, rendering it only if the
+     * collection changed since it was last rendered. The returned bytes must not be modified.
+     *
+     * @param collection the collection to render
+     * @param view       the view to render
+     * @return the encoded view
+     */
+    public byte[] render(AntiqueCollection collection, View view) {
+        // The version is read before the fields, so a change made while rendering is caught next time
+        int version = collection.getVersion();
+        synchronized (this) {
+            Entry entry = entries.get(collection);
+            if (entry != null && entry.version == version && entry.views[view.ordinal()] != null) {
+                return entry.views[view.ordinal()];
+            }
+        }
+
+        byte[] bytes = format(collection, view).getBytes(CHARSET);
+        synchronized (this) {
+            Entry entry = entries.get(collection);
+            if (entry == null || entry.version != version) {
+                if (entry != null) {
+                    cachedBytes -= entry.size;
+                }
+                entry = new Entry(version);
+                entries.put(collection, entry);
+            }
+            if (entry.views[view.ordinal()] == null) {
+                entry.views[view.ordinal()] = bytes;
+                entry.size += bytes.length;
+                cachedBytes += bytes.length;
+                evict();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Removes the rendered views of a collection.
+     *
+     * @param collection the collection whose views to remove
+     */
+    public synchronized void invalidate(AntiqueCollection collection) {
+        Entry entry = entries.remove(collection);
+        if (entry != null) {
+            cachedBytes -= entry.size;
+        }
+    }
+
+    /**
+     * Evicts the least recently rendered collections until the cache is within its size.
+     */
+    private void evict() {
+        Iterator<Map.Entry<AntiqueCollection, Entry>> eldest = entries.entrySet().iterator();
+        while (cachedBytes > maxCachedBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().size;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Formats a view of a collection.
+     *
+     * @param collection the collection to format
+     * @param view       the view to format
+     * @return the formatted view
+     */
+    private static String format(AntiqueCollection collection, View view) {
+        StringBuilder text = new StringBuilder(256);
+        if (view == View.SUMMARY) {
+            return text.append("Collection ID: ").append(collection.getAntiqueCollectionID())
+                    .append(", Name: ").append(collection.getName())
+                    .append(", Type: ").append(collection.getType())
+                    .append(", Quantity: ").append(collection.getQuantity())
+                    .append(", Condition Description: ").append(collection.getConditionDescription())
+                    .append(", Base Price: ").append(collection.getBasePrice())
+                    .append(", Status: ").append(collection.getStatus())
+                    .append(", Sold Price: ").append(collection.getSoldPrice())
+                    .toString();
+        }
+
+        text.append("Collection ID: ").append(collection.getAntiqueCollectionID()).append(LINE_SEPARATOR);
+        text.append("Name: ").append(collection.getName()).append(LINE_SEPARATOR);
+        text.append("Type: ").append(collection.getType()).append(LINE_SEPARATOR);
+        if (view == View.DETAILS) {
+            text.append("Quantity: ").append(collection.getQuantity()).append(LINE_SEPARATOR);
+            text.append("Condition Description: ").append(collection.getConditionDescription()).append(LINE_SEPARATOR);
+        }
+        text.append("Base Price: ").append(collection.getBasePrice()).append(LINE_SEPARATOR);
+        if (view == View.DETAILS) {
+            text.append("Status: ").append(collection.getStatus()).append(LINE_SEPARATOR);
+        }
+        return text.toString();
+    }
+}
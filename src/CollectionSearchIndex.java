@@ -0,0 +1,353 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The CollectionSearchIndex class is an inverted index over the name, type and condition
+ * description of the antique collections buyers can bid on. Each word maps to a posting list
+ * of the collections containing it, weighted by where the word appears: a word in the name
+ * counts more than one in the type, which counts more than one in the condition description.
+ * Queries are ranked by TF-IDF, so collections matching more and rarer words come first.
+ * The index is updated one collection at a time as collections are added, removed, edited
+ * or change status, and never rescans the catalog. Each collection remembers its position in
+ * the posting list of each of its words, so removing it does not scan the posting lists, and
+ * a query only touches the scores of the collections that match it.
+ */
+public class CollectionSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int TYPE_WEIGHT = 2;
+    private static final int CONDITION_WEIGHT = 1;
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "by", "for", "from", "in", "is", "it", "of", "on", "or", "the", "to", "with"));
+
+    private HashMap<String, Postings> postingsByWord;
+    private IdentityHashMap<AntiqueCollection, Document> documents;
+    private AntiqueCollection[] collectionsBySlot;
+    private Document[] documentsBySlot;
+    private double[] normsBySlot;
+    private double[] scoresBySlot;
+    private int[] matchedSlots;
+    private int slotCount;
+    private int[] freeSlots;
+    private int freeSlotCount;
+
+    /**
+     * The words of an indexed collection, kept so that the collection can be removed even
+     * after its text has changed.
+     */
+    private static class Document {
+        private final int slot;
+        private final String[] words;
+        private final int[] positions;
+        private final double norm;
+
+        /**
+         * Constructs a Document object.
+         *
+         * @param slot      the slot of the collection in the index
+         * @param words     the distinct words of the collection
+         * @param positions the position of the collection in the posting list of each word
+         * @param weights   the total weight of each word
+         */
+        private Document(int slot, String[] words, int[] positions, int[] weights) {
+            this.slot = slot;
+            this.words = words;
+            this.positions = positions;
+            double sumOfSquares = 0;
+            for (int weight : weights) {
+                double termWeight = 1 + Math.log(weight);
+                sumOfSquares += termWeight * termWeight;
+            }
+            this.norm = Math.sqrt(sumOfSquares);
+        }
+    }
+
+    /**
+     * The slots of the collections containing one word and the weight of the word in each of them.
+     */
+    private static class Postings {
+        private final String word;
+        private int[] slots = new int[4];
+        private int[] weights = new int[4];
+        private int[] wordIndexes = new int[4];
+        private int size;
+
+        /**
+         * Constructs an empty Postings object.
+         *
+         * @param word the word the posting list is for
+         */
+        private Postings(String word) {
+            this.word = word;
+        }
+
+        /**
+         * Adds a collection to the posting list.
+         *
+         * @param slot      the slot of the collection containing the word
+         * @param weight    the weight of the word in the collection
+         * @param wordIndex the index of the word among the words of the collection
+         * @return the position of the collection in the posting list
+         */
+        private int add(int slot, int weight, int wordIndex) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                wordIndexes = Arrays.copyOf(wordIndexes, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            wordIndexes[size] = wordIndex;
+            return size++;
+        }
+
+        /**
+         * Removes the collection at a position from the posting list by moving the last entry
+         * into its place, and tells the collection of the moved entry its new position.
+         *
+         * @param position        the position of the collection to remove
+         * @param documentsBySlot the indexed collections by slot
+         */
+        private void remove(int position, Document[] documentsBySlot) {
+            size--;
+            if (position == size) {
+                return;
+            }
+            slots[position] = slots[size];
+            weights[position] = weights[size];
+            wordIndexes[position] = wordIndexes[size];
+            documentsBySlot[slots[position]].positions[wordIndexes[position]] = position;
+        }
+    }
+
+    /**
+     * A collection found by a search and its relevance to the query.
+     */
+    public static class Result {
+        private final AntiqueCollection collection;
+        private final double score;
+
+        /**
+         * Constructs a Result object.
+         *
+         * @param collection the collection found
+         * @param score      the relevance of the collection to the query
+         */
+        private Result(AntiqueCollection collection, double score) {
+            this.collection = collection;
+            this.score = score;
+        }
+
+        /**
+         * Gets the collection found.
+         *
+         * @return the collection found
+         */
+        public AntiqueCollection getCollection() {
+            return collection;
+        }
+
+        /**
+         * Gets the relevance of the collection to the query. Higher scores are more relevant.
+         *
+         * @return the relevance of the collection
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Constructs an empty CollectionSearchIndex object.
+     */
+    public CollectionSearchIndex() {
+        this.postingsByWord = new HashMap<>();
+        this.documents = new IdentityHashMap<>();
+        this.collectionsBySlot = new AntiqueCollection[16];
+        this.documentsBySlot = new Document[16];
+        this.normsBySlot = new double[16];
+        this.scoresBySlot = new double[16];
+        this.matchedSlots = new int[16];
+        this.freeSlots = new int[16];
+    }
+
+    /**
+     * Adds a collection to the index, replacing the words indexed for it earlier.
+     *
+     * @param collection the collection to add
+     */
+    public synchronized void add(AntiqueCollection collection) {
+        remove(collection);
+
+        HashMap<String, int[]> weights = new HashMap<>();
+        addWords(weights, collection.getName(), NAME_WEIGHT);
+        addWords(weights, collection.getType(), TYPE_WEIGHT);
+        addWords(weights, collection.getConditionDescription(), CONDITION_WEIGHT);
+        if (weights.isEmpty()) {
+            return;
+        }
+
+        int slot = allocateSlot();
+        String[] words = new String[weights.size()];
+        int[] positions = new int[weights.size()];
+        int[] wordWeights = new int[weights.size()];
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : weights.entrySet()) {
+            int weight = entry.getValue()[0];
+            Postings postings = postingsByWord.computeIfAbsent(entry.getKey(), Postings::new);
+            positions[i] = postings.add(slot, weight, i);
+            // Every collection shares the one copy of the word held by its posting list
+            words[i] = postings.word;
+            wordWeights[i] = weight;
+            i++;
+        }
+        Document document = new Document(slot, words, positions, wordWeights);
+        documents.put(collection, document);
+        collectionsBySlot[slot] = collection;
+        documentsBySlot[slot] = document;
+        normsBySlot[slot] = document.norm;
+    }
+
+    /**
+     * Removes a collection from the index.
+     *
+     * @param collection the collection to remove
+     */
+    public synchronized void remove(AntiqueCollection collection) {
+        Document document = documents.remove(collection);
+        if (document == null) {
+            return;
+        }
+        for (int i = 0; i < document.words.length; i++) {
+            Postings postings = postingsByWord.get(document.words[i]);
+            postings.remove(document.positions[i], documentsBySlot);
+            if (postings.size == 0) {
+                postingsByWord.remove(document.words[i]);
+            }
+        }
+        collectionsBySlot[document.slot] = null;
+        documentsBySlot[document.slot] = null;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = document.slot;
+    }
+
+    /**
+     * Finds a slot for a collection, reusing the slots of removed collections first.
+     *
+     * @return the slot
+     */
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == collectionsBySlot.length) {
+            collectionsBySlot = Arrays.copyOf(collectionsBySlot, slotCount * 2);
+            documentsBySlot = Arrays.copyOf(documentsBySlot, slotCount * 2);
+            normsBySlot = Arrays.copyOf(normsBySlot, slotCount * 2);
+            scoresBySlot = Arrays.copyOf(scoresBySlot, slotCount * 2);
+            matchedSlots = Arrays.copyOf(matchedSlots, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Gets the number of collections in the index.
+     *
+     * @return the number of indexed collections
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Finds the collections most relevant to a keyword query. A collection matches if it
+     * contains any of the words of the query; it is scored by the sum over the matching words
+     * of the weight of the word in the collection times its inverse document frequency,
+     * divided by the length of the collection's word vector.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of results
+     * @return the matching collections, most relevant first
+     */
+    public synchronized List<Result> search(String query, int limit) {
+        HashMap<String, int[]> queryWords = new HashMap<>();
+        addWords(queryWords, query, 1);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Scores are summed in an array indexed by slot that is kept between queries, and only
+        // the slots that match are visited and cleared again
+        double[] scores = scoresBySlot;
+        int matchedCount = 0;
+        for (String word : queryWords.keySet()) {
+            Postings postings = postingsByWord.get(word);
+            if (postings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (double) documents.size() / postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+                if (scores[slot] == 0) {
+                    matchedSlots[matchedCount++] = slot;
+                }
+                scores[slot] += (1 + Math.log(postings.weights[i])) * idf;
+            }
+        }
+
+        // Keep the best results in a min-heap, so only the lowest of them is ever replaced
+        PriorityQueue<Result> best = new PriorityQueue<>(limit, (a, b) -> Double.compare(a.score, b.score));
+        for (int i = 0; i < matchedCount; i++) {
+            int slot = matchedSlots[i];
+            double score = scores[slot] / normsBySlot[slot];
+            scores[slot] = 0;
+            if (best.size() < limit) {
+                best.add(new Result(collectionsBySlot[slot], score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Result(collectionsBySlot[slot], score));
+            }
+        }
+
+        ArrayList<Result> results = new ArrayList<>(best);
+        results.sort((a, b) -> Double.compare(b.score, a.score));
+        return results;
+    }
+
+    /**
+     * Splits a text into lower-case words of letters and digits, skipping common words, and
+     * adds the specified weight to each of them.
+     *
+     * @param weights the weight of each word found so far
+     * @param text    the text to split, or null
+     * @param weight  the weight of each occurrence of a word in the text
+     */
+    private static void addWords(HashMap<String, int[]> weights, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase();
+                if (!STOP_WORDS.contains(word)) {
+                    weights.computeIfAbsent(word, w -> new int[1])[0] += weight;
+                }
+                start = -1;
+            }
+        }
+    }
+}
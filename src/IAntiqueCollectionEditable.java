@@ -1,3 +1,6 @@
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * The IAntiqueCollectionEditable interface provides methods for editing antique collections.
  */
@@ -18,6 +21,20 @@ public interface IAntiqueCollectionEditable {
      */
     void disapproveAntiqueCollection(int id);
 
+    /**
+     * Approves several antique collections at once by setting their base prices.
+     *
+     * @param basePrices the base price to be set for each antique collection, by collection ID
+     */
+    void approveAntiqueCollections(Map<Integer, Double> basePrices);
+
+    /**
+     * Disapproves several antique collections at once.
+     *
+     * @param ids the IDs of the antique collections
+     */
+    void disapproveAntiqueCollections(Collection<Integer> ids);
+
     /**
      * Sets the base price for an antique collection.
      *
@@ -0,0 +1,222 @@
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The IdAllocator class hands out unique IDs for bids, users and collections.
+ * IDs are allocated in hi/lo style: each thread takes a block of consecutive IDs from a
+ * shared atomic block counter and then hands them out without any synchronization.
+ * Blocks are interleaved between auction nodes, so nodes with different node IDs never
+ * hand out the same ID, and ranges of blocks are reserved in a file before they are used,
+ * so IDs stay unique across restarts. IDs that are taken by hand are skipped, even when
+ * they fall within a block a thread already holds. The ID file and the number of blocks
+ * reserved at a time can be set with the {@code auction.idFile} and
+ * {@code auction.idReservationBlocks} system properties.
+ */
+public class IdAllocator {
+    private static final String ID_FILE = "auction_ids.properties";
+    private static final String ID_FILE_PROPERTY = "auction.idFile";
+    private static final String NODE_ID_PROPERTY = "auction.nodeId";
+    private static final String RESERVATION_PROPERTY = "auction.idReservationBlocks";
+    private static final int NODE_SLOTS = 16;
+    private static final int BLOCK_SIZE = 32;
+    private static final int BLOCKS_PER_RESERVATION = 64;
+    private static final HashMap<String, IdAllocator> allocators = new HashMap<>();
+    private static Properties reservations;
+    private static int nodeId = -1;
+
+    private String name;
+    private AtomicLong nextBlock;
+    private volatile long reservedBlocks;
+    private AtomicInteger highestTakenId;
+    private ThreadLocal<int[]> currentBlock;
+
+    /**
+     * Private constructor to create the allocator for a named sequence of IDs.
+     *
+     * @param name           the name of the sequence
+     * @param reservedBlocks the number of blocks reserved by earlier runs
+     */
+    private IdAllocator(String name, long reservedBlocks) {
+        this.name = name;
+        this.nextBlock = new AtomicLong(reservedBlocks);
+        this.reservedBlocks = reservedBlocks;
+        this.highestTakenId = new AtomicInteger();
+        this.currentBlock = ThreadLocal.withInitial(() -> new int[2]);
+    }
+
+    /**
+     * Gets the allocator for a named sequence of IDs.
+     *
+     * @param name the name of the sequence
+     * @return the allocator for the sequence
+     */
+    public static synchronized IdAllocator forName(String name) {
+        IdAllocator allocator = allocators.get(name);
+        if (allocator == null) {
+            allocator = new IdAllocator(name, Long.parseLong(loadReservations().getProperty(name, "0")));
+            allocators.put(name, allocator);
+        }
+        return allocator;
+    }
+
+    /**
+     * Gets the allocator for bid IDs.
+     *
+     * @return the allocator for bid IDs
+     */
+    public static IdAllocator bids() {
+        return forName("bid");
+    }
+
+    /**
+     * Gets the allocator for user IDs.
+     *
+     * @return the allocator for user IDs
+     */
+    public static IdAllocator users() {
+        return forName("user");
+    }
+
+    /**
+     * Gets the allocator for antique collection IDs.
+     *
+     * @return the allocator for antique collection IDs
+     */
+    public static IdAllocator collections() {
+        return forName("collection");
+    }
+
+    /**
+     * Gets the ID of this auction node, read from the {@code auction.nodeId} system property.
+     *
+     * @return the node ID, between 0 and 15
+     */
+    public static synchronized int getNodeId() {
+        if (nodeId < 0) {
+            int configuredNodeId = Integer.getInteger(NODE_ID_PROPERTY, 0);
+            if (configuredNodeId < 0 || configuredNodeId >= NODE_SLOTS) {
+                throw new IllegalArgumentException("Node ID must be between 0 and " + (NODE_SLOTS - 1) + ".");
+            }
+            nodeId = configuredNodeId;
+        }
+        return nodeId;
+    }
+
+    /**
+     * Returns the next unique ID. IDs of the current block that are not above an ID passed
+     * to {@link #ensureAbove(int)} are skipped.
+     *
+     * @return the next ID
+     */
+    public int nextId() {
+        int[] block = currentBlock.get();
+        while (true) {
+            if (block[0] == block[1]) {
+                long hi = nextBlock.getAndIncrement();
+                if (hi >= reservedBlocks) {
+                    reserve(hi);
+                }
+                long first = (hi * NODE_SLOTS + getNodeId()) * BLOCK_SIZE + 1;
+                if (first + BLOCK_SIZE > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("No more " + name + " IDs are available.");
+                }
+                block[0] = (int) first;
+                block[1] = (int) first + BLOCK_SIZE;
+            }
+            int id = block[0]++;
+            if (id > highestTakenId.get()) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Makes sure that IDs handed out from now on are greater than an ID that is already in use,
+     * for example an ID assigned by hand or recovered from a file. Blocks that threads already
+     * hold are not handed out at or below the ID either.
+     *
+     * @param id the ID in use
+     */
+    public void ensureAbove(int id) {
+        if (id > 0) {
+            highestTakenId.accumulateAndGet(id, Math::max);
+            long hi = (id - 1) / BLOCK_SIZE / NODE_SLOTS;
+            nextBlock.accumulateAndGet(hi + 1, Math::max);
+        }
+    }
+
+    /**
+     * Reserves blocks in the ID file until the specified block is covered.
+     *
+     * @param hi the block that must be reserved
+     */
+    private synchronized void reserve(long hi) {
+        while (hi >= reservedBlocks) {
+            long newReservedBlocks = Math.max(reservedBlocks, hi) + Math.max(1, Long.getLong(RESERVATION_PROPERTY, BLOCKS_PER_RESERVATION));
+            saveReservation(name, newReservedBlocks);
+            reservedBlocks = newReservedBlocks;
+        }
+    }
+
+    /**
+     * Loads the block reservations of earlier runs from the ID file.
+     *
+     * @return the reservations by sequence name
+     */
+    private static synchronized Properties loadReservations() {
+        if (reservations == null) {
+            reservations = new Properties();
+            Path path = idFile();
+            if (Files.exists(path)) {
+                try (FileInputStream in = new FileInputStream(path.toFile())) {
+                    reservations.load(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error reading ID file: " + e.getMessage(), e);
+                }
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Saves a block reservation to the ID file before any ID in the reserved blocks is used.
+     *
+     * @param name           the name of the sequence
+     * @param reservedBlocks the number of reserved blocks
+     */
+    private static synchronized void saveReservation(String name, long reservedBlocks) {
+        Properties properties = loadReservations();
+        properties.setProperty(name, String.valueOf(reservedBlocks));
+
+        Path path = idFile();
+        Path tempPath = Paths.get(path + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(tempPath.toFile())) {
+                properties.store(out, "Reserved ID blocks");
+                out.getFD().sync();
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing ID file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the path of the ID file, read from the {@code auction.idFile} system property.
+     *
+     * @return the path of the ID file
+     */
+    private static Path idFile() {
+        return Paths.get(System.getProperty(ID_FILE_PROPERTY, ID_FILE));
+    }
+}
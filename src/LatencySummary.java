@@ -0,0 +1,102 @@
+/**
+ * The LatencySummary class represents the percentiles of a latency histogram at one point
+ * in time, in microseconds. It is how latencies are shown over JMX.
+ */
+public class LatencySummary {
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    /**
+     * Constructs a LatencySummary object from the current state of a histogram.
+     *
+     * @param histogram the latency histogram
+     */
+    public LatencySummary(LatencyHistogram histogram) {
+        this.count = histogram.getCount();
+        this.meanMicros = histogram.getMean() / 1e3;
+        this.p50Micros = histogram.getValueAtPercentile(50) / 1e3;
+        this.p90Micros = histogram.getValueAtPercentile(90) / 1e3;
+        this.p99Micros = histogram.getValueAtPercentile(99) / 1e3;
+        this.p999Micros = histogram.getValueAtPercentile(99.9) / 1e3;
+        this.maxMicros = histogram.getMax() / 1e3;
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean latency.
+     *
+     * @return the mean latency in microseconds
+     */
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    /**
+     * Gets the median latency.
+     *
+     * @return the 50th percentile in microseconds
+     */
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    /**
+     * Gets the 90th percentile latency.
+     *
+     * @return the 90th percentile in microseconds
+     */
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    /**
+     * Gets the 99th percentile latency.
+     *
+     * @return the 99th percentile in microseconds
+     */
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    /**
+     * Gets the 99.9th percentile latency.
+     *
+     * @return the 99.9th percentile in microseconds
+     */
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    /**
+     * Gets the highest latency.
+     *
+     * @return the highest latency in microseconds
+     */
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * Returns the summary as one line of text.
+     *
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("count %d, mean %.1f us, p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                count, meanMicros, p50Micros, p90Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The Ledger class accounts for the money raised by an auction: the total revenue, the
+ * proceeds of each seller and the debt of each buyer, all in fixed-point cents. It is the
+ * only record of buyer debt; buyers read their debt from the ledger of their buyer list.
+ * Like {@link java.util.concurrent.atomic.LongAdder}, the ledger is split into stripes and
+ * each thread records its sales in its own stripe, so sales settled in parallel do not
+ * contend on a single lock. A snapshot locks every stripe at once, so the totals it reports
+ * always add up to the same set of sales.
+ */
+public class Ledger {
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+
+    private Stripe[] stripes;
+
+    /**
+     * The sales recorded by the threads that map to one stripe.
+     */
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long revenueCents;
+        private long salesCount;
+        private final HashMap<Integer, Long> sellerProceedsCents = new HashMap<>();
+        private final HashMap<String, Long> buyerDebtCents = new HashMap<>();
+    }
+
+    /**
+     * The Snapshot class represents the totals of a ledger at one point in time.
+     */
+    public static class Snapshot {
+        private final long totalRevenueCents;
+        private final long salesCount;
+        private final Map<Integer, Long> sellerProceedsCents;
+        private final Map<String, Long> buyerDebtCents;
+
+        /**
+         * Constructs a Snapshot object with the specified totals.
+         *
+         * @param totalRevenueCents   the total revenue in cents
+         * @param salesCount          the number of sales
+         * @param sellerProceedsCents the proceeds in cents by seller ID
+         * @param buyerDebtCents      the debt in cents by buyer username
+         */
+        private Snapshot(long totalRevenueCents, long salesCount, Map<Integer, Long> sellerProceedsCents, Map<String, Long> buyerDebtCents) {
+            this.totalRevenueCents = totalRevenueCents;
+            this.salesCount = salesCount;
+            this.sellerProceedsCents = Collections.unmodifiableMap(sellerProceedsCents);
+            this.buyerDebtCents = Collections.unmodifiableMap(buyerDebtCents);
+        }
+
+        /**
+         * Gets the total revenue in cents.
+         *
+         * @return the total revenue in cents
+         */
+        public long getTotalRevenueCents() {
+            return totalRevenueCents;
+        }
+
+        /**
+         * Gets the number of sales.
+         *
+         * @return the number of sales
+         */
+        public long getSalesCount() {
+            return salesCount;
+        }
+
+        /**
+         * Gets the proceeds of each seller in cents.
+         *
+         * @return the proceeds in cents by seller ID
+         */
+        public Map<Integer, Long> getSellerProceedsCents() {
+            return sellerProceedsCents;
+        }
+
+        /**
+         * Gets the debt of each buyer in cents.
+         *
+         * @return the debt in cents by buyer username
+         */
+        public Map<String, Long> getBuyerDebtCents() {
+            return buyerDebtCents;
+        }
+    }
+
+    /**
+     * Constructs an empty Ledger object.
+     */
+    public Ledger() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records a sale in the stripe of the calling thread.
+     *
+     * @param sellerId      the ID of the seller of the sold collection
+     * @param buyerUsername the username of the buyer
+     * @param amountCents   the sold price in cents
+     */
+    public void recordSale(int sellerId, String buyerUsername, long amountCents) {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (hash >>> 32) & (STRIPES - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.revenueCents += amountCents;
+            stripe.salesCount++;
+            stripe.sellerProceedsCents.merge(sellerId, amountCents, Long::sum);
+            stripe.buyerDebtCents.merge(buyerUsername, amountCents, Long::sum);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Records debt that a buyer carried over from before the ledger was created, such as debt
+     * loaded from a snapshot of the system. Carried-over debt is not counted as revenue.
+     *
+     * @param buyerUsername the username of the buyer
+     * @param amountCents   the debt in cents
+     */
+    public void recordDebt(String buyerUsername, long amountCents) {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (hash >>> 32) & (STRIPES - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.buyerDebtCents.merge(buyerUsername, amountCents, Long::sum);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Records revenue and seller proceeds carried over from before the ledger was created,
+     * such as the totals loaded from a snapshot of the system. The debt of the buyers is
+     * carried over separately with {@link #recordDebt(String, long)}.
+     *
+     * @param revenueCents        the revenue in cents
+     * @param salesCount          the number of sales
+     * @param sellerProceedsCents the proceeds in cents by seller ID
+     */
+    public void recordRevenue(long revenueCents, long salesCount, Map<Integer, Long> sellerProceedsCents) {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        Stripe stripe = stripes[(int) (hash >>> 32) & (STRIPES - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.revenueCents += revenueCents;
+            stripe.salesCount += salesCount;
+            for (Map.Entry<Integer, Long> proceeds : sellerProceedsCents.entrySet()) {
+                stripe.sellerProceedsCents.merge(proceeds.getKey(), proceeds.getValue(), Long::sum);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total revenue in cents. Sales recorded while the stripes are being summed
+     * may or may not be included; use {@link #snapshot()} for totals that must agree with each other.
+     *
+     * @return the total revenue in cents
+     */
+    public long getTotalRevenueCents() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.revenueCents;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the proceeds of a seller in cents.
+     *
+     * @param sellerId the ID of the seller
+     * @return the proceeds of the seller in cents
+     */
+    public long getSellerProceedsCents(int sellerId) {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.sellerProceedsCents.getOrDefault(sellerId, 0L);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the debt of a buyer in cents.
+     *
+     * @param buyerUsername the username of the buyer
+     * @return the debt of the buyer in cents
+     */
+    public long getBuyerDebtCents(String buyerUsername) {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.buyerDebtCents.getOrDefault(buyerUsername, 0L);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Takes a consistent snapshot of the ledger. All stripes are locked while the totals are
+     * summed, so every sale is either fully included or not included at all.
+     *
+     * @return the snapshot of the ledger
+     */
+    public Snapshot snapshot() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            long totalRevenueCents = 0;
+            long salesCount = 0;
+            HashMap<Integer, Long> sellerProceedsCents = new HashMap<>();
+            HashMap<String, Long> buyerDebtCents = new HashMap<>();
+            for (Stripe stripe : stripes) {
+                totalRevenueCents += stripe.revenueCents;
+                salesCount += stripe.salesCount;
+                stripe.sellerProceedsCents.forEach((sellerId, cents) -> sellerProceedsCents.merge(sellerId, cents, Long::sum));
+                stripe.buyerDebtCents.forEach((buyerUsername, cents) -> buyerDebtCents.merge(buyerUsername, cents, Long::sum));
+            }
+            return new Snapshot(totalRevenueCents, salesCount, sellerProceedsCents, buyerDebtCents);
+        } finally {
+            for (Stripe stripe : stripes) {
+                stripe.lock.unlock();
+            }
+        }
+    }
+}
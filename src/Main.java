@@ -1,24 +1,31 @@
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import javax.management.JMException;
 
 /**
  * The Main class is the entry point for the Charity Auction System.
  * It initializes data, handles user login and signup, and manages the main menu loop.
  */
 public class Main {
+    private static final String JOURNAL_FILE = "auction_journal.log";
+    private static final String RESULTS_FILE = "auction_results.txt";
+    private static final String REPLAY_RESULTS_FILE = "replay_results.txt";
+    private static final String REPLAY_ID_FILE = "replay_ids.properties";
+    private static final String ID_FILE_PROPERTY = "auction.idFile";
+    private static final String SNAPSHOT_FILE = "auction_snapshot.bin";
+    private static final String REPLAY_OPTION = "--replay";
+
     /**
      * The main method is the entry point of the program.
      *
      * @param args command-line arguments
      */
     public static void main(String[] args) {
-        // Clear the auction results file at the start of the program
-        try (FileWriter fileWriter = new FileWriter("auction_results.txt", false)) {
-            fileWriter.write("");
-        } catch (IOException e) {
-            System.out.println("Error clearing auction results file: " + e.getMessage());
+        if (args.length > 0 && args[0].equals(REPLAY_OPTION)) {
+            replay(args);
+            return;
         }
 
         Scanner scanner = new Scanner(System.in);
@@ -43,43 +50,29 @@ public class Main {
 
         // Create seller list
         SellerList sellerList = new SellerList();
-
-        // Create some sellers
-        Seller seller1 = new Seller(1, "seller1", "pass1", "John Doe", "123 Main St", "john@example.com");
-        Seller seller2 = new Seller(2, "seller2", "pass2", "Jane Smith", "456 Elm St", "jane@example.com");
-        Seller seller3 = new Seller(3, "seller3", "pass3", "Alice Johnson", "789 Oak St", "alice@example.com");
-
-        sellerList.addSeller(seller1);
-        sellerList.addSeller(seller2);
-        sellerList.addSeller(seller3);
-
-        // Create some buyers
-        Buyer buyer1 = new Buyer(4, "buyer1", "p1", "Bob Brown", "321 Pine St", "bob@example.com");
-        Buyer buyer2 = new Buyer(5, "buyer2", "p2", "Charlie Davis", "654 Cedar St", "charlie@example.com");
-
-        buyerList.addBuyer(buyer1);
-        buyerList.addBuyer(buyer2);
+        SystemSnapshot snapshot = new SystemSnapshot(SNAPSHOT_FILE);
+        loadOrSeed(snapshot, antiqueCollectionList, sellerList, buyerList);
 
         // Create user manager
         UserManager userManager = new UserManager();
 
-        // Create some collections
-        AntiqueCollection antiqueCollection1 = new AntiqueCollection(1, "Antique Chair", "Furniture", 1, "Good condition", 100.0, Status.PENDING, 1);
-        AntiqueCollection antiqueCollection2 = new AntiqueCollection(2, "Vintage Painting", "Artwork", 1, "Excellent condition", 200.0, Status.APPROVED, 2);
-        AntiqueCollection antiqueCollection3 = new AntiqueCollection(3, "Rare Coin Collection", "Collectibles", 1, "Mint condition", 300.0, Status.APPROVED, 1);
-        AntiqueCollection antiqueCollection4 = new AntiqueCollection(4, "Antique Vase", "Pottery", 1, "Fair condition", 150.0, Status.PENDING, 3);
-
-        // Add collections to seller's registered collections
-        seller1.registerCollection(antiqueCollection1);
-        seller2.registerCollection(antiqueCollection2);
-        seller1.registerCollection(antiqueCollection3);
-        seller3.registerCollection(antiqueCollection4);
+        // Recover users, collections, bids, sales and status changes from the journal, then keep journaling
+        BidJournal journal = null;
+        try {
+            journal = BidJournal.open(JOURNAL_FILE);
+            int records = journal.recover(charityLeader.getAuction(), antiqueCollectionList, sellerList, buyerList);
+            if (records > 0) {
+                System.out.println("Recovered " + records + " auction events from the journal.");
+            }
+            charityLeader.getAuction().setJournal(journal);
+            antiqueCollectionList.setJournal(journal);
+            userManager.setJournal(journal);
+        } catch (IOException e) {
+            System.out.println("Error opening bid journal: " + e.getMessage());
+        }
 
-        // Add collections to the collection list
-        antiqueCollectionList.addCollection(antiqueCollection1);
-        antiqueCollectionList.addCollection(antiqueCollection2);
-        antiqueCollectionList.addCollection(antiqueCollection3);
-        antiqueCollectionList.addCollection(antiqueCollection4);
+        // Show the metrics of the bid path over JMX
+        registerMetrics(charityLeader.getAuction());
 
         // Variable to hold the logged-in user
         User loggedInUser = null;
@@ -98,7 +91,7 @@ public class Main {
 
                     switch (choice) {
                         case 1:
-                            loggedInUser = userManager.login(sellerList, buyerList, charityLeader);
+                            loggedInUser = userManager.login();
                             if (loggedInUser != null) {
                                 System.out.println("Logged in as: " + loggedInUser.getName());
                             }
@@ -108,6 +101,8 @@ public class Main {
                             break;
                         case 3:
                             System.out.println("Exiting...");
+                            saveSnapshot(snapshot, journal, antiqueCollectionList, sellerList, buyerList);
+                            closeJournal(journal);
                             return;
                         default:
                             System.out.println("Invalid choice. Please enter 1, 2, or 3.");
@@ -137,4 +132,181 @@ public class Main {
             }
         }
     }
+
+    /**
+     * Loads the sellers, buyers and collections saved when the system last exited, or
+     * creates the sample data if nothing has been saved yet.
+     *
+     * @param snapshot              the snapshot of the system
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     */
+    private static void loadOrSeed(SystemSnapshot snapshot, AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) {
+        if (!snapshot.exists()) {
+            seedSampleData(antiqueCollectionList, sellerList, buyerList);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            int records = snapshot.load(antiqueCollectionList, sellerList, buyerList);
+            System.out.println("Loaded " + records + " records from the snapshot in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        } catch (IOException e) {
+            System.out.println("Error loading snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the system to the snapshot and empties the journal, whose events the snapshot
+     * now covers. The journal is kept if the snapshot could not be saved.
+     *
+     * @param snapshot              the snapshot of the system
+     * @param journal               the bid journal, or null if it could not be opened
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     */
+    private static void saveSnapshot(SystemSnapshot snapshot, BidJournal journal, AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) {
+        try {
+            snapshot.save(antiqueCollectionList, sellerList, buyerList);
+            if (journal != null) {
+                journal.checkpoint();
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the sample sellers, buyers and collections the system starts with.
+     *
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     */
+    private static void seedSampleData(AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) {
+        // Create some sellers
+        Seller seller1 = new Seller(1, "seller1", "pass1", "John Doe", "123 Main St", "john@example.com");
+        Seller seller2 = new Seller(2, "seller2", "pass2", "Jane Smith", "456 Elm St", "jane@example.com");
+        Seller seller3 = new Seller(3, "seller3", "pass3", "Alice Johnson", "789 Oak St", "alice@example.com");
+
+        sellerList.addSeller(seller1);
+        sellerList.addSeller(seller2);
+        sellerList.addSeller(seller3);
+
+        // Create some buyers
+        Buyer buyer1 = new Buyer(4, "buyer1", "p1", "Bob Brown", "321 Pine St", "bob@example.com");
+        Buyer buyer2 = new Buyer(5, "buyer2", "p2", "Charlie Davis", "654 Cedar St", "charlie@example.com");
+
+        buyerList.addBuyer(buyer1);
+        buyerList.addBuyer(buyer2);
+
+        // Create some collections
+        AntiqueCollection antiqueCollection1 = new AntiqueCollection(1, "Antique Chair", "Furniture", 1, "Good condition", 100.0, Status.PENDING, 1);
+        AntiqueCollection antiqueCollection2 = new AntiqueCollection(2, "Vintage Painting", "Artwork", 1, "Excellent condition", 200.0, Status.APPROVED, 2);
+        AntiqueCollection antiqueCollection3 = new AntiqueCollection(3, "Rare Coin Collection", "Collectibles", 1, "Mint condition", 300.0, Status.APPROVED, 1);
+        AntiqueCollection antiqueCollection4 = new AntiqueCollection(4, "Antique Vase", "Pottery", 1, "Fair condition", 150.0, Status.PENDING, 3);
+
+        // Add collections to seller's registered collections
+        seller1.registerCollection(antiqueCollection1);
+        seller2.registerCollection(antiqueCollection2);
+        seller1.registerCollection(antiqueCollection3);
+        seller3.registerCollection(antiqueCollection4);
+
+        // Add collections to the collection list
+        antiqueCollectionList.addCollection(antiqueCollection1);
+        antiqueCollectionList.addCollection(antiqueCollection2);
+        antiqueCollectionList.addCollection(antiqueCollection3);
+        antiqueCollectionList.addCollection(antiqueCollection4);
+    }
+
+    /**
+     * Replays a file of recorded bid lines against the approved collections without
+     * prompts, then writes the auction results and displays a report. The replay does not
+     * use the bid journal, and its results go to {@value #REPLAY_RESULTS_FILE} unless another
+     * file is given, so recorded events never mix with the live auction. IDs are reserved in
+     * {@value #REPLAY_ID_FILE} unless the {@code auction.idFile} system property is set, so a
+     * replay never uses up the IDs of the live system.
+     * Usage: {@code --replay file [--silent] [--register-buyers] [--results file]}
+     *
+     * @param args command-line arguments
+     */
+    private static void replay(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: " + REPLAY_OPTION + " file [--silent] [--register-buyers] [--results file]");
+            return;
+        }
+
+        boolean silent = false;
+        boolean registerUnknownBuyers = false;
+        String resultsFile = REPLAY_RESULTS_FILE;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--silent":
+                    silent = true;
+                    break;
+                case "--register-buyers":
+                    registerUnknownBuyers = true;
+                    break;
+                case "--results":
+                    if (i + 1 == args.length) {
+                        System.out.println("Missing results file after --results.");
+                        return;
+                    }
+                    resultsFile = args[++i];
+                    break;
+                default:
+                    System.out.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        if (System.getProperty(ID_FILE_PROPERTY) == null) {
+            System.setProperty(ID_FILE_PROPERTY, REPLAY_ID_FILE);
+        }
+        BuyerList buyerList = new BuyerList();
+        AntiqueCollectionList antiqueCollectionList = AntiqueCollectionList.getInstance();
+        loadOrSeed(new SystemSnapshot(SNAPSHOT_FILE), antiqueCollectionList, new SellerList(), buyerList);
+
+        Auction auction = new Auction(buyerList, resultsFile);
+        registerMetrics(auction);
+        BidReplay bidReplay = new BidReplay(auction, buyerList);
+        bidReplay.setSilent(silent);
+        bidReplay.setRegisterUnknownBuyers(registerUnknownBuyers);
+        try {
+            BidReplay.Report report = bidReplay.replay(Paths.get(args[1]), antiqueCollectionList.getApprovedCollections());
+            bidReplay.displayReport(report);
+        } catch (IOException e) {
+            System.out.println("Error reading bid file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the metrics of an auction with the platform MBean server.
+     *
+     * @param auction the auction
+     */
+    private static void registerMetrics(Auction auction) {
+        try {
+            auction.getMetrics().register();
+        } catch (JMException e) {
+            System.out.println("Error registering auction metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all pending journal records to disk and closes the journal.
+     *
+     * @param journal the bid journal, or null if it could not be opened
+     */
+    private static void closeJournal(BidJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Error closing bid journal: " + e.getMessage());
+        }
+    }
 }
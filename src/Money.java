@@ -0,0 +1,32 @@
+/**
+ * The Money class converts between dollar amounts and the fixed-point cent amounts
+ * used internally by the auction system.
+ */
+public final class Money {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding to the nearest cent.
+     *
+     * @param amount the amount in dollars
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Converts an amount in cents to dollars.
+     *
+     * @param cents the amount in cents
+     * @return the amount in dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+}
@@ -1,17 +1,15 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * The Seller class represents a seller in the auction system.
- * It allows sellers to register, delete, and view antique collections,
+ * It allows sellers to register, import, delete, and view antique collections,
  * as well as edit their profile information.
  */
 public class Seller extends User implements IProfileEditable, UserActions {
-    private ArrayList<AntiqueCollection> registeredAntiqueCollections;
-    private static final String AUCTION_RESULTS_FILE = "auction_results.txt";
+    private static final int IMPORT_ERRORS_SHOWN = 20;
 
     /**
      * Constructs a Seller object with the specified user details.
@@ -25,7 +23,6 @@ public class Seller extends User implements IProfileEditable, UserActions {
      */
     public Seller(int userId, String username, String password, String name, String address, String contactInfo) {
         super(userId, username, password, "Seller", name, address, contactInfo);
-        registeredAntiqueCollections = new ArrayList<>();
     }
 
     /**
@@ -38,6 +35,7 @@ public class Seller extends User implements IProfileEditable, UserActions {
         System.out.println("c) View Collection List");
         System.out.println("d) Edit Profile Information Details");
         System.out.println("e) View Auction Results");
+        System.out.println("f) Import Collections from a CSV or JSON-lines File");
         System.out.println("-1 to Logout");
     }
 
@@ -56,10 +54,10 @@ public class Seller extends User implements IProfileEditable, UserActions {
                 registerCollectionManually(antiqueCollectionList);
                 break;
             case "b":
-                deleteCollection();
+                deleteCollection(antiqueCollectionList);
                 break;
             case "c":
-                viewCollections(sellerList.getSellers());
+                viewCollections(antiqueCollectionList, sellerList);
                 break;
             case "d":
                 editProfile();
@@ -67,6 +65,9 @@ public class Seller extends User implements IProfileEditable, UserActions {
             case "e":
                 displayAuctionResultsFromFile();
                 break;
+            case "f":
+                importCollectionsFromFile(scanner, antiqueCollectionList);
+                break;
             case "-1":
                 logout();
                 break;
@@ -77,17 +78,14 @@ public class Seller extends User implements IProfileEditable, UserActions {
     }
 
     /**
-     * Displays the auction results from the results file.
+     * Displays the auction results of the collections registered by the seller.
      */
     private void displayAuctionResultsFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(AUCTION_RESULTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
-            }
-        } catch (IOException e) {
-            System.out.println("Error reading auction results from file: " + e.getMessage());
+        ArrayList<Integer> collectionIds = new ArrayList<>();
+        for (AntiqueCollection antiqueCollection : getRegisteredCollections()) {
+            collectionIds.add(antiqueCollection.getAntiqueCollectionID());
         }
+        displayAuctionResults(page -> AuctionResultsReader.getInstance().getRecordsForCollections(collectionIds, page, RESULTS_PAGE_SIZE));
     }
 
     /**
@@ -120,12 +118,13 @@ public class Seller extends User implements IProfileEditable, UserActions {
     }
 
     /**
-     * Registers a collection.
+     * Registers a collection as owned by the seller. The collection is listed among the
+     * seller's collections once it is in the antique collection list.
      *
      * @param antiqueCollection the antique collection to register
      */
     public void registerCollection(AntiqueCollection antiqueCollection) {
-        registeredAntiqueCollections.add(antiqueCollection);
+        antiqueCollection.setSellerID(getUserId());
     }
 
     /**
@@ -140,20 +139,20 @@ public class Seller extends User implements IProfileEditable, UserActions {
 
         int id;
         while (true) {
-            System.out.print("ID: ");
+            System.out.print("ID (leave blank to assign one automatically): ");
             try {
-                id = Integer.parseInt(scanner.nextLine());
-
-                // Check if the ID already exists
-                boolean idExists = false;
-                for (AntiqueCollection collection : antiqueCollectionList.getAntiqueCollections()) {
-                    if (collection.getAntiqueCollectionID() == id) {
-                        idExists = true;
-                        break;
-                    }
+                String idInput = scanner.nextLine().trim();
+                if (idInput.isEmpty()) {
+                    do {
+                        id = IdAllocator.collections().nextId();
+                    } while (antiqueCollectionList.containsId(id));
+                    System.out.println("Assigned ID: " + id);
+                    break;
                 }
+                id = Integer.parseInt(idInput);
 
-                if (idExists) {
+                // Check if the ID already exists
+                if (antiqueCollectionList.containsId(id)) {
                     System.out.println("This ID already exists. Please enter a different ID.");
                 } else {
                     break;
@@ -225,74 +224,101 @@ public class Seller extends User implements IProfileEditable, UserActions {
         double basePrice = 0.0; // Initialize base price to 0.0
 
         AntiqueCollection antiqueCollection = new AntiqueCollection(id, name, type, quantity, conditionDescription, basePrice, Status.PENDING, getUserId());
-        antiqueCollectionList.addCollection(antiqueCollection);
-
-        // Register the collection
-        registeredAntiqueCollections.add(antiqueCollection);
+        if (!antiqueCollectionList.addCollection(antiqueCollection)) {
+            System.out.println("This ID already exists. The collection was not registered.");
+            return;
+        }
 
         System.out.println("Collection registered successfully!");
     }
 
     /**
-     * Deletes a registered collection based on the user's input.
+     * Imports collections from a CSV or JSON-lines file named by the seller and registers
+     * them to the seller, then reports the records that could not be imported.
+     *
+     * @param scanner               the scanner for user input
+     * @param antiqueCollectionList the list of antique collections
      */
-    public void deleteCollection() {
-        Scanner scanner = new Scanner(System.in);
-
-        // Display the list of registered collections
-        listCollectionDetailsForASeller();
+    public void importCollectionsFromFile(Scanner scanner, AntiqueCollectionList antiqueCollectionList) {
+        System.out.print("Enter the path of the CSV or JSON-lines file to import: ");
+        String fileName = scanner.nextLine().trim();
+        if (fileName.isEmpty()) {
+            System.out.println("No file entered.");
+            return;
+        }
 
-        if (!registeredAntiqueCollections.isEmpty()) {
-            // Ask the user to enter the ID of the collection to delete
-            System.out.println("Enter the ID of the collection to delete: ");
-            int idToDelete = scanner.nextInt();
+        CollectionImporter importer = new CollectionImporter(fileName);
+        try {
+            int imported = importer.importCollections(this, antiqueCollectionList);
+            System.out.println(imported + " collection(s) imported successfully!");
+        } catch (IOException e) {
+            System.out.println("Error importing collections: " + e.getMessage());
+        }
 
-            // Find the collection with the given ID and delete it
-            boolean found = false;
-            for (AntiqueCollection antiqueCollection : registeredAntiqueCollections) {
-                if (antiqueCollection.getAntiqueCollectionID() == idToDelete) {
-                    registeredAntiqueCollections.remove(antiqueCollection);
-                    found = true;
-                    System.out.println("Collection deleted successfully!");
-                    break;
-                }
+        if (importer.getErrorCount() > 0) {
+            System.out.println(importer.getErrorCount() + " record(s) could not be imported:");
+            List<String> errors = importer.getErrors();
+            for (int i = 0; i < errors.size() && i < IMPORT_ERRORS_SHOWN; i++) {
+                System.out.println(errors.get(i));
             }
-
-            if (!found) {
-                System.out.println("Collection not found.");
+            if (importer.getErrorCount() > IMPORT_ERRORS_SHOWN) {
+                System.out.println("... and " + (importer.getErrorCount() - IMPORT_ERRORS_SHOWN) + " more.");
             }
-        } else {
+        }
+    }
+
+    /**
+     * Deletes a registered collection based on the user's input. The collection is removed
+     * from the antique collection list, so it is no longer auctioned; sold collections are kept.
+     *
+     * @param antiqueCollectionList the list of antique collections
+     */
+    public void deleteCollection(AntiqueCollectionList antiqueCollectionList) {
+        Scanner scanner = new Scanner(System.in);
+
+        // Display the list of registered collections
+        if (!listCollectionDetailsForASeller()) {
             System.out.println("No collections to delete.");
+            return;
+        }
+
+        // Ask the user to enter the ID of the collection to delete
+        System.out.println("Enter the ID of the collection to delete: ");
+        int idToDelete = scanner.nextInt();
+        try {
+            antiqueCollectionList.deleteCollection(getUserId(), idToDelete);
+            System.out.println("Collection deleted successfully!");
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println(e.getMessage());
         }
     }
 
     /**
      * Gets the list of registered collections.
      *
-     * @return the list of registered collections
+     * @return the list of registered collections, in ID order
      */
     public ArrayList<AntiqueCollection> getRegisteredCollections() {
-        return registeredAntiqueCollections;
+        return AntiqueCollectionList.getInstance().getCollectionsBySeller(getUserId());
     }
 
     /**
      * Lists the details of collections registered by the seller.
+     *
+     * @return true if the seller has registered collections, otherwise false
      */
-    public void listCollectionDetailsForASeller() {
+    public boolean listCollectionDetailsForASeller() {
+        ArrayList<AntiqueCollection> registeredAntiqueCollections = getRegisteredCollections();
         System.out.println(getName() + "'s Registered Collections:");
         if (registeredAntiqueCollections.isEmpty()) {
             System.out.println("No collections registered yet.");
         } else {
             for (AntiqueCollection antiqueCollection : registeredAntiqueCollections) {
-                System.out.println("Collection ID: " + antiqueCollection.getAntiqueCollectionID());
-                System.out.println("Name: " + antiqueCollection.getName());
-                System.out.println("Type: " + antiqueCollection.getType());
-                System.out.println("Quantity: " + antiqueCollection.getQuantity());
-                System.out.println("Condition Description: " + antiqueCollection.getConditionDescription());
-                System.out.println("Base Price: " + antiqueCollection.getBasePrice());
-                System.out.println("Status: " + antiqueCollection.getStatus());
+                byte[] details = CollectionRenderCache.getInstance().render(antiqueCollection, CollectionRenderCache.View.DETAILS);
+                System.out.write(details, 0, details.length);
                 System.out.println();
             }
         }
+        return !registeredAntiqueCollections.isEmpty();
     }
 }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
  */
 public class SellerList {
     private ArrayList<Seller> sellers;
+    private UserDirectory userDirectory;
 
     /**
      * Constructs a SellerList object.
@@ -13,15 +14,23 @@ public class SellerList {
      */
     public SellerList() {
         this.sellers = new ArrayList<>();
+        this.userDirectory = UserDirectory.getInstance();
     }
 
     /**
-     * Adds a seller to the list.
+     * Adds a seller to the list and registers its username in the user directory.
      *
      * @param seller the seller to be added
+     * @return true if the seller was added, false if the username is already taken
      */
-    public void addSeller(Seller seller) {
-        sellers.add(seller);
+    public boolean addSeller(Seller seller) {
+        if (!userDirectory.register(seller)) {
+            return false;
+        }
+        synchronized (sellers) {
+            sellers.add(seller);
+        }
+        return true;
     }
 
     /**
@@ -30,7 +39,10 @@ public class SellerList {
      * @param seller the seller to be removed
      */
     public void removeSeller(Seller seller) {
-        sellers.remove(seller);
+        synchronized (sellers) {
+            sellers.remove(seller);
+        }
+        userDirectory.unregister(seller);
     }
 
     /**
@@ -49,12 +61,7 @@ public class SellerList {
      * @return true if the username exists, false otherwise
      */
     public boolean usernameExists(String username) {
-        for (Seller seller : sellers) {
-            if (seller.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return userDirectory.getUser(username) instanceof Seller;
     }
 
     /**
@@ -0,0 +1,551 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * The SystemSnapshot class saves the whole system to a compact binary file and loads it
+ * back: every antique collection, every seller with the collections they registered and
+ * every buyer with their purchases and debt, and the revenue and seller proceeds in the ledger.
+ * <p>
+ * The file starts with a magic number and a version, followed by chunks of at most
+ * {@value #CHUNK_RECORDS} records. Each chunk has a header holding its section, its number
+ * of records, its length and a CRC-32 of its contents, so the chunks can be located without
+ * decoding them and then decoded in parallel. Collections come before the users that refer
+ * to them by ID. The file is written to a temporary file first and moved into place, so a
+ * crash while saving leaves the previous snapshot intact.
+ */
+public class SystemSnapshot {
+    private static final int MAGIC = 0x43415353; // "CASS"
+    private static final int VERSION = 2;
+    private static final int FIRST_READABLE_VERSION = 1;
+    private static final int CHUNK_RECORDS = 16_384;
+    private static final int CHUNK_HEADER_SIZE = 1 + 4 + 4 + 4;
+    private static final byte END = 0;
+    private static final byte COLLECTIONS = 1;
+    private static final byte SELLERS = 2;
+    private static final byte BUYERS = 3;
+    private static final byte LEDGER = 4;
+    private static final Status[] STATUSES = Status.values();
+
+    private Path path;
+
+    /**
+     * A chunk of the snapshot file that has been located but not decoded yet.
+     */
+    private static class Chunk {
+        private final byte section;
+        private final int recordCount;
+        private final int checksum;
+        private final ByteBuffer contents;
+
+        private Chunk(byte section, int recordCount, int checksum, ByteBuffer contents) {
+            this.section = section;
+            this.recordCount = recordCount;
+            this.checksum = checksum;
+            this.contents = contents;
+        }
+    }
+
+    /**
+     * A decoded user together with the IDs of the collections it refers to.
+     */
+    private static class UserRecord {
+        private final User user;
+        private final int[] collectionIds;
+        private final long debtCents;
+
+        private UserRecord(User user, int[] collectionIds, long debtCents) {
+            this.user = user;
+            this.collectionIds = collectionIds;
+            this.debtCents = debtCents;
+        }
+    }
+
+    /**
+     * The decoded revenue and seller proceeds of the ledger.
+     */
+    private static class LedgerRecord {
+        private final long revenueCents;
+        private final long salesCount;
+        private final Map<Integer, Long> sellerProceedsCents;
+
+        private LedgerRecord(long revenueCents, long salesCount, Map<Integer, Long> sellerProceedsCents) {
+            this.revenueCents = revenueCents;
+            this.salesCount = salesCount;
+            this.sellerProceedsCents = sellerProceedsCents;
+        }
+    }
+
+    /**
+     * The ChunkWriter class groups the records of one section into chunks.
+     */
+    private static class ChunkWriter {
+        private final DataOutputStream out;
+        private final byte section;
+        private final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        private final DataOutputStream record = new DataOutputStream(contents);
+        private int recordCount;
+        private int totalRecords;
+
+        /**
+         * Constructs a ChunkWriter object for a section.
+         *
+         * @param out     the stream of the snapshot file
+         * @param section the section of the records
+         */
+        private ChunkWriter(DataOutputStream out, byte section) {
+            this.out = out;
+            this.section = section;
+        }
+
+        /**
+         * Starts the next record, writing the current chunk first if it is full.
+         *
+         * @return the stream to write the record to
+         * @throws IOException if the chunk cannot be written
+         */
+        private DataOutputStream nextRecord() throws IOException {
+            if (recordCount == CHUNK_RECORDS) {
+                writeChunk();
+            }
+            recordCount++;
+            totalRecords++;
+            return record;
+        }
+
+        /**
+         * Writes the last chunk of the section.
+         *
+         * @return the number of records in the section
+         * @throws IOException if the chunk cannot be written
+         */
+        private int finish() throws IOException {
+            if (recordCount > 0) {
+                writeChunk();
+            }
+            return totalRecords;
+        }
+
+        /**
+         * Writes the current chunk with its header.
+         *
+         * @throws IOException if the chunk cannot be written
+         */
+        private void writeChunk() throws IOException {
+            record.flush();
+            byte[] bytes = contents.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+
+            out.writeByte(section);
+            out.writeInt(recordCount);
+            out.writeInt(bytes.length);
+            out.writeInt((int) crc.getValue());
+            out.write(bytes);
+
+            contents.reset();
+            recordCount = 0;
+        }
+    }
+
+    /**
+     * Constructs a SystemSnapshot object for the specified file.
+     *
+     * @param fileName the name of the snapshot file
+     */
+    public SystemSnapshot(String fileName) {
+        this.path = Paths.get(fileName);
+    }
+
+    /**
+     * Checks whether a snapshot has been saved.
+     *
+     * @return true if the snapshot file exists, otherwise false
+     */
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Saves the system to the snapshot file, replacing the previous snapshot.
+     *
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     * @return the number of records saved
+     * @throws IOException if the snapshot file cannot be written
+     */
+    public int save(AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) throws IOException {
+        Path tempPath = Paths.get(path + ".tmp");
+        int records = 0;
+        try (FileOutputStream file = new FileOutputStream(tempPath.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            ChunkWriter collections = new ChunkWriter(out, COLLECTIONS);
+            for (AntiqueCollection collection : antiqueCollectionList.getAntiqueCollections()) {
+                writeCollection(collections.nextRecord(), collection);
+            }
+            records += collections.finish();
+
+            ChunkWriter sellers = new ChunkWriter(out, SELLERS);
+            for (Seller seller : sellerList.getSellers()) {
+                DataOutputStream record = sellers.nextRecord();
+                writeUser(record, seller);
+                writeCollectionIds(record, seller.getRegisteredCollections());
+            }
+            records += sellers.finish();
+
+            ChunkWriter buyers = new ChunkWriter(out, BUYERS);
+            for (Buyer buyer : buyerList.getBuyers()) {
+                DataOutputStream record = buyers.nextRecord();
+                writeUser(record, buyer);
+                writeCollectionIds(record, buyer.getPurchasedItems());
+                record.writeLong(buyer.getTotalDebtCents());
+            }
+            records += buyers.finish();
+
+            ChunkWriter ledger = new ChunkWriter(out, LEDGER);
+            writeLedger(ledger.nextRecord(), buyerList.getLedger().snapshot());
+            records += ledger.finish();
+
+            out.writeByte(END);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return records;
+    }
+
+    /**
+     * Loads the snapshot file into empty lists. The chunks are decoded in parallel and then
+     * added to the lists in the order they were saved.
+     *
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     * @param buyerList             the list of buyers
+     * @return the number of records loaded
+     * @throws IOException if the snapshot file cannot be read or is corrupt
+     */
+    public int load(AntiqueCollectionList antiqueCollectionList, SellerList sellerList, BuyerList buyerList) throws IOException {
+        List<Chunk> chunks;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            chunks = locateChunks(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        List<List<?>> decodedChunks;
+        try {
+            decodedChunks = chunks.parallelStream().map(SystemSnapshot::decode).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int records = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            byte section = chunks.get(i).section;
+            for (Object record : decodedChunks.get(i)) {
+                if (section == COLLECTIONS) {
+                    antiqueCollectionList.addCollection((AntiqueCollection) record);
+                } else if (section == SELLERS) {
+                    addSeller((UserRecord) record, antiqueCollectionList, sellerList);
+                } else if (section == LEDGER) {
+                    LedgerRecord ledger = (LedgerRecord) record;
+                    buyerList.getLedger().recordRevenue(ledger.revenueCents, ledger.salesCount, ledger.sellerProceedsCents);
+                } else {
+                    addBuyer((UserRecord) record, antiqueCollectionList, buyerList);
+                }
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Adds a loaded seller and the collections it registered.
+     *
+     * @param record                the decoded seller
+     * @param antiqueCollectionList the list of all antique collections
+     * @param sellerList            the list of sellers
+     */
+    private static void addSeller(UserRecord record, AntiqueCollectionList antiqueCollectionList, SellerList sellerList) {
+        Seller seller = (Seller) record.user;
+        for (int collectionId : record.collectionIds) {
+            AntiqueCollection collection = antiqueCollectionList.getCollectionById(collectionId);
+            if (collection != null) {
+                seller.registerCollection(collection);
+            }
+        }
+        sellerList.addSeller(seller);
+    }
+
+    /**
+     * Adds a loaded buyer with its purchases and debt.
+     *
+     * @param record                the decoded buyer
+     * @param antiqueCollectionList the list of all antique collections
+     * @param buyerList             the list of buyers
+     */
+    private static void addBuyer(UserRecord record, AntiqueCollectionList antiqueCollectionList, BuyerList buyerList) {
+        Buyer buyer = (Buyer) record.user;
+        for (int collectionId : record.collectionIds) {
+            AntiqueCollection collection = antiqueCollectionList.getCollectionById(collectionId);
+            if (collection != null) {
+                buyer.addPurchasedItem(collection);
+            }
+        }
+        if (buyerList.addBuyer(buyer)) {
+            buyerList.getLedger().recordDebt(buyer.getUsername(), record.debtCents);
+        }
+    }
+
+    /**
+     * Finds the chunks of a snapshot file by reading their headers.
+     *
+     * @param file the contents of the snapshot file
+     * @return the chunks in the order they were saved
+     * @throws IOException if the file is not a snapshot or is truncated
+     */
+    private static List<Chunk> locateChunks(ByteBuffer file) throws IOException {
+        if (file.remaining() < 8 || file.getInt() != MAGIC) {
+            throw new IOException("Not a snapshot file.");
+        }
+        int version = file.getInt();
+        if (version < FIRST_READABLE_VERSION || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ".");
+        }
+
+        ArrayList<Chunk> chunks = new ArrayList<>();
+        while (true) {
+            if (!file.hasRemaining()) {
+                throw new IOException("Snapshot file is truncated.");
+            }
+            byte section = file.get();
+            if (section == END) {
+                return chunks;
+            }
+            if (section < COLLECTIONS || section > LEDGER || file.remaining() < CHUNK_HEADER_SIZE - 1) {
+                throw new IOException("Snapshot file is corrupt.");
+            }
+            int recordCount = file.getInt();
+            int length = file.getInt();
+            int checksum = file.getInt();
+            if (length < 0 || length > file.remaining()) {
+                throw new IOException("Snapshot file is truncated.");
+            }
+            ByteBuffer contents = file.slice();
+            contents.limit(length);
+            file.position(file.position() + length);
+            chunks.add(new Chunk(section, recordCount, checksum, contents));
+        }
+    }
+
+    /**
+     * Decodes the records of a chunk.
+     *
+     * @param chunk the chunk to decode
+     * @return the decoded collections or user records
+     */
+    private static List<?> decode(Chunk chunk) {
+        ByteBuffer in = chunk.contents.duplicate();
+        CRC32 crc = new CRC32();
+        crc.update(in.duplicate());
+        if ((int) crc.getValue() != chunk.checksum) {
+            throw new UncheckedIOException(new IOException("Snapshot chunk checksum does not match."));
+        }
+
+        ArrayList<Object> records = new ArrayList<>(chunk.recordCount);
+        try {
+            for (int i = 0; i < chunk.recordCount; i++) {
+                if (chunk.section == COLLECTIONS) {
+                    records.add(readCollection(in));
+                } else if (chunk.section == SELLERS) {
+                    Seller seller = new Seller(in.getInt(), readString(in), readString(in), readString(in), readString(in), readString(in));
+                    records.add(new UserRecord(seller, readCollectionIds(in), 0));
+                } else if (chunk.section == LEDGER) {
+                    records.add(readLedger(in));
+                } else {
+                    Buyer buyer = new Buyer(in.getInt(), readString(in), readString(in), readString(in), readString(in), readString(in));
+                    records.add(new UserRecord(buyer, readCollectionIds(in), in.getLong()));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException("Snapshot chunk is corrupt.", e));
+        }
+        return records;
+    }
+
+    /**
+     * Writes an antique collection.
+     *
+     * @param out        the stream to write to
+     * @param collection the antique collection
+     * @throws IOException if the collection cannot be written
+     */
+    private static void writeCollection(DataOutputStream out, AntiqueCollection collection) throws IOException {
+        out.writeInt(collection.getAntiqueCollectionID());
+        writeString(out, collection.getName());
+        writeString(out, collection.getType());
+        out.writeInt(collection.getQuantity());
+        writeString(out, collection.getConditionDescription());
+        out.writeDouble(collection.getBasePrice());
+        out.writeByte(collection.getStatus() == null ? -1 : collection.getStatus().ordinal());
+        out.writeInt(collection.getSellerID());
+        out.writeDouble(collection.getSoldPrice());
+        writeString(out, collection.getBuyerUsername());
+    }
+
+    /**
+     * Reads an antique collection.
+     *
+     * @param in the buffer to read from
+     * @return the antique collection
+     */
+    private static AntiqueCollection readCollection(ByteBuffer in) {
+        int collectionId = in.getInt();
+        String name = readString(in);
+        String type = readString(in);
+        int quantity = in.getInt();
+        String conditionDescription = readString(in);
+        double basePrice = in.getDouble();
+        byte statusOrdinal = in.get();
+        Status status = statusOrdinal < 0 ? null : STATUSES[statusOrdinal];
+        int sellerId = in.getInt();
+
+        AntiqueCollection collection = new AntiqueCollection(collectionId, name, type, quantity, conditionDescription, basePrice, status, sellerId);
+        collection.setSoldPrice(in.getDouble());
+        collection.setBuyerUsername(readString(in));
+        return collection;
+    }
+
+    /**
+     * Writes the revenue and seller proceeds of the ledger. The debt of each buyer is written with the buyer.
+     *
+     * @param out    the stream to write to
+     * @param ledger the snapshot of the ledger
+     * @throws IOException if the ledger cannot be written
+     */
+    private static void writeLedger(DataOutputStream out, Ledger.Snapshot ledger) throws IOException {
+        out.writeLong(ledger.getTotalRevenueCents());
+        out.writeLong(ledger.getSalesCount());
+        out.writeInt(ledger.getSellerProceedsCents().size());
+        for (Map.Entry<Integer, Long> proceeds : ledger.getSellerProceedsCents().entrySet()) {
+            out.writeInt(proceeds.getKey());
+            out.writeLong(proceeds.getValue());
+        }
+    }
+
+    /**
+     * Reads the revenue and seller proceeds of the ledger.
+     *
+     * @param in the buffer to read from
+     * @return the ledger record
+     */
+    private static LedgerRecord readLedger(ByteBuffer in) {
+        long revenueCents = in.getLong();
+        long salesCount = in.getLong();
+        int sellerCount = in.getInt();
+        HashMap<Integer, Long> sellerProceedsCents = new HashMap<>();
+        for (int i = 0; i < sellerCount; i++) {
+            sellerProceedsCents.put(in.getInt(), in.getLong());
+        }
+        return new LedgerRecord(revenueCents, salesCount, sellerProceedsCents);
+    }
+
+    /**
+     * Writes the details shared by all users.
+     *
+     * @param out  the stream to write to
+     * @param user the user
+     * @throws IOException if the user cannot be written
+     */
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeInt(user.getUserId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getPassword());
+        writeString(out, user.getName());
+        writeString(out, user.getAddress());
+        writeString(out, user.getContactInfo());
+    }
+
+    /**
+     * Writes the IDs of a list of collections.
+     *
+     * @param out         the stream to write to
+     * @param collections the collections
+     * @throws IOException if the IDs cannot be written
+     */
+    private static void writeCollectionIds(DataOutputStream out, List<AntiqueCollection> collections) throws IOException {
+        synchronized (collections) {
+            out.writeInt(collections.size());
+            for (AntiqueCollection collection : collections) {
+                out.writeInt(collection.getAntiqueCollectionID());
+            }
+        }
+    }
+
+    /**
+     * Reads the IDs of a list of collections.
+     *
+     * @param in the buffer to read from
+     * @return the collection IDs
+     */
+    private static int[] readCollectionIds(ByteBuffer in) {
+        int[] collectionIds = new int[in.getInt()];
+        for (int i = 0; i < collectionIds.length; i++) {
+            collectionIds[i] = in.getInt();
+        }
+        return collectionIds;
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its UTF-8 bytes. A null string is
+     * written as the length -1.
+     *
+     * @param out   the stream to write to
+     * @param value the string, or null
+     * @throws IOException if the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the buffer to read from
+     * @return the string, or null
+     */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The TextStore class keeps long texts, such as the condition reports of antique collections,
+ * in a segment file on disk instead of on the heap. Texts are appended to the segment file
+ * and identified by a handle holding their offset and length. Reading a text goes through an
+ * LRU cache bounded by the number of cached characters, so only recently read texts stay in
+ * memory. The segment file is a scratch file deleted when the system exits; the texts are
+ * saved with the rest of the system by the SystemSnapshot.
+ */
+public class TextStore {
+    /**
+     * The system property holding the length from which texts are moved to the segment file.
+     */
+    public static final String INLINE_LIMIT_PROPERTY = "auction.textStore.inlineLimit";
+    /**
+     * The system property holding the number of characters the cache may hold.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "auction.textStore.cacheChars";
+    /**
+     * The handle of a text that is not in the store.
+     */
+    public static final long NO_HANDLE = -1;
+    private static final int LENGTH_BITS = 24;
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+    private static final long MAX_OFFSET = (1L << (Long.SIZE - 1 - LENGTH_BITS)) - 1;
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static TextStore instance;
+
+    private int inlineLimit;
+    private long maxCachedChars;
+    private volatile FileChannel channel;
+    private ByteBuffer writeBuffer;
+    private long flushedSize;
+    private long size;
+    private LinkedHashMap<Long, String> cache;
+    private long cachedChars;
+
+    /**
+     * Private constructor to create a TextStore object with the limits set in the system properties.
+     */
+    private TextStore() {
+        this.inlineLimit = Integer.getInteger(INLINE_LIMIT_PROPERTY, 256);
+        this.maxCachedChars = Long.getLong(CACHE_SIZE_PROPERTY, 8L * 1024 * 1024);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Gets the instance of the TextStore class.
+     *
+     * @return the instance of the TextStore class
+     */
+    public static synchronized TextStore getInstance() {
+        if (instance == null) {
+            instance = new TextStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether a text is long enough to be moved to the segment file.
+     *
+     * @param text the text
+     * @return true if the text should be stored, false if it should stay on the heap
+     */
+    public boolean shouldStore(String text) {
+        return text != null && text.length() >= inlineLimit;
+    }
+
+    /**
+     * Appends a text to the segment file. Texts are collected in a write buffer and written
+     * to the file once the buffer is full.
+     *
+     * @param text the text to append
+     * @return the handle of the text, or NO_HANDLE if the text could not be stored and must stay on the heap
+     */
+    public synchronized long append(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH || size > MAX_OFFSET) {
+            return NO_HANDLE;
+        }
+        try {
+            if (channel == null) {
+                channel = open();
+            }
+            if (bytes.length > writeBuffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > writeBuffer.remaining()) {
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                writeBuffer.put(bytes);
+            }
+        } catch (IOException e) {
+            // Texts that were not written stay in the write buffer, and a text written only in part is overwritten later
+            flushedSize = size - writeBuffer.position();
+            System.out.println("Error writing to text store: " + e.getMessage());
+            return NO_HANDLE;
+        }
+        long handle = (size << LENGTH_BITS) | bytes.length;
+        size += bytes.length;
+        return handle;
+    }
+
+    /**
+     * Reads a text from the cache, or from the segment file if it is not cached.
+     *
+     * @param handle the handle returned when the text was appended
+     * @return the text
+     */
+    public String read(long handle) {
+        long offset = handle >>> LENGTH_BITS;
+        int length = (int) (handle & MAX_LENGTH);
+        synchronized (this) {
+            String text = cache.get(handle);
+            if (text != null) {
+                return text;
+            }
+            if (offset >= flushedSize) {
+                // The text is still in the write buffer
+                return new String(writeBuffer.array(), (int) (offset - flushedSize), length, StandardCharsets.UTF_8);
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of text store.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading from text store: " + e.getMessage(), e);
+        }
+        String text = new String(buffer.array(), StandardCharsets.UTF_8);
+        cache(handle, text);
+        return text;
+    }
+
+    /**
+     * Writes the texts collected in the write buffer to the segment file. If the write fails,
+     * the texts that were not written are kept in the write buffer, so they can still be read
+     * and are written by the next flush.
+     *
+     * @throws IOException if the texts cannot be written
+     */
+    private synchronized void flush() throws IOException {
+        writeBuffer.flip();
+        try {
+            write(writeBuffer);
+        } catch (IOException e) {
+            writeBuffer.compact();
+            throw e;
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Writes bytes at the end of the segment file.
+     *
+     * @param buffer the bytes to write
+     * @throws IOException if the bytes cannot be written
+     */
+    private synchronized void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            flushedSize += channel.write(buffer, flushedSize);
+        }
+    }
+
+    /**
+     * Adds a text to the cache, evicting the least recently read texts to stay within the size of the cache.
+     *
+     * @param handle the handle of the text
+     * @param text   the text
+     */
+    private synchronized void cache(long handle, String text) {
+        if (text.length() > maxCachedChars || cache.containsKey(handle)) {
+            return;
+        }
+        cache.put(handle, text);
+        cachedChars += text.length();
+        Iterator<Map.Entry<Long, String>> eldest = cache.entrySet().iterator();
+        while (cachedChars > maxCachedChars) {
+            cachedChars -= eldest.next().getValue().length();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Creates the segment file.
+     *
+     * @return the channel of the segment file
+     * @throws IOException if the file cannot be created
+     */
+    private static FileChannel open() throws IOException {
+        File file = File.createTempFile("auction_text", ".seg");
+        file.deleteOnExit();
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
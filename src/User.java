@@ -1,10 +1,23 @@
-import java.util.ArrayList;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Scanner;
+import java.util.function.IntFunction;
 
 /**
  * The User class represents a user in the auction system.
  * It is an abstract class that provides common properties and methods for different types of users.
  */
 public abstract class User {
+    /**
+     * The number of auction results shown per page.
+     */
+    protected static final int RESULTS_PAGE_SIZE = 10;
+    private static final int CATALOG_PAGE_SIZE = 20;
+    private static final int PAGE_BUFFER_SIZE = 64 * 1024;
+
     private int userId;
     private String username;
     private String password;
@@ -168,71 +181,104 @@ public abstract class User {
     }
 
     /**
-     * Views the collections for sellers. If the user is a buyer, it calls a different method to view collections for buyers.
-     *
-     * @param sellers the list of sellers
-     */
-    public void viewCollections(ArrayList<Seller> sellers) {
-        if (this instanceof Buyer) {
-            viewCollectionsForBuyers(sellers);
-        } else {
-            System.out.println();
-            System.out.println("Collections:");
-            boolean collectionsExist = false;
-
-            for (Seller seller : sellers) {
-                ArrayList<AntiqueCollection> antiqueCollections = seller.getRegisteredCollections();
-                if (!antiqueCollections.isEmpty()) {
-                    collectionsExist = true;
-                    System.out.println("Seller: " + seller.getName());
-                    for (AntiqueCollection antiqueCollection : antiqueCollections) {
-                        System.out.println("Collection ID: " + antiqueCollection.getAntiqueCollectionID());
-                        System.out.println("Name: " + antiqueCollection.getName());
-                        System.out.println("Type: " + antiqueCollection.getType());
-                        System.out.println("Quantity: " + antiqueCollection.getQuantity());
-                        System.out.println("Condition Description: " + antiqueCollection.getConditionDescription());
-                        System.out.println("Base Price: " + antiqueCollection.getBasePrice());
-                        System.out.println("Status: " + antiqueCollection.getStatus());
-                        System.out.println("-------------------------------");
-                        System.out.println();
-                    }
-                }
+     * Views the collections in the catalog one page at a time. Buyers see the approved
+     * collections; other users see collections of any status with all their details.
+     *
+     * @param antiqueCollectionList the list of antique collections
+     * @param sellerList            the list of sellers
+     */
+    public void viewCollections(AntiqueCollectionList antiqueCollectionList, SellerList sellerList) {
+        boolean forBuyers = this instanceof Buyer;
+        HashMap<Integer, String> sellerNames = new HashMap<>();
+        for (Seller seller : sellerList.getSellers()) {
+            sellerNames.put(seller.getUserId(), seller.getName());
+        }
+
+        // Each page is written to the console in one go instead of line by line
+        Scanner scanner = new Scanner(System.in);
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out, PAGE_BUFFER_SIZE), false);
+        out.println();
+        out.println("Collections:");
+
+        int cursor = CatalogPage.START;
+        while (true) {
+            CatalogPage page = antiqueCollectionList.getPage(forBuyers ? Status.APPROVED : null, cursor, CATALOG_PAGE_SIZE);
+            if (cursor == CatalogPage.START && page.getCollections().isEmpty()) {
+                out.println(forBuyers ? "No collections available for purchase." : "No collections available.");
+                out.flush();
+                return;
+            }
+            for (AntiqueCollection antiqueCollection : page.getCollections()) {
+                printCollection(out, antiqueCollection, sellerNames.get(antiqueCollection.getSellerID()), forBuyers);
+            }
+            out.flush();
+            if (!page.hasNext()) {
+                return;
             }
 
-            if (!collectionsExist) {
-                System.out.println("No collections available.");
+            System.out.print("Enter 'n' to view the next page, or press Enter to return: ");
+            if (!scanner.nextLine().equalsIgnoreCase("n")) {
+                return;
             }
+            cursor = page.getNextCursor();
+        }
+    }
+
+    /**
+     * Prints the details of a collection in the catalog.
+     *
+     * @param out               the stream to print to
+     * @param antiqueCollection the collection to print
+     * @param sellerName        the name of the seller of the collection, or null if the seller is unknown
+     * @param forBuyers         whether to print only the details shown to buyers
+     */
+    private static void printCollection(PrintStream out, AntiqueCollection antiqueCollection, String sellerName, boolean forBuyers) {
+        if (sellerName != null) {
+            out.println("Seller: " + sellerName);
         }
+        byte[] details = CollectionRenderCache.getInstance().render(antiqueCollection,
+                forBuyers ? CollectionRenderCache.View.LISTING : CollectionRenderCache.View.DETAILS);
+        out.write(details, 0, details.length);
+        out.println("-------------------------------");
+        out.println();
     }
 
     /**
-     * Views the collections available for buyers.
+     * Displays auction results one page at a time, asking whether to show the next page.
      *
-     * @param sellers the list of sellers
+     * @param pages a function returning the auction result records on a page, starting at page 0
      */
-    private void viewCollectionsForBuyers(ArrayList<Seller> sellers) {
-        System.out.println();
-        System.out.println("Collections:");
-        boolean collectionsExist = false;
+    protected void displayAuctionResults(IntFunction<List<String>> pages) {
+        try {
+            AuctionResultsReader.getInstance().refresh();
+        } catch (IOException e) {
+            System.out.println("Error reading auction results from file: " + e.getMessage());
+            return;
+        }
 
-        for (Seller seller : sellers) {
-            ArrayList<AntiqueCollection> antiqueCollections = seller.getRegisteredCollections();
-            for (AntiqueCollection antiqueCollection : antiqueCollections) {
-                if (antiqueCollection.getStatus().equals(Status.APPROVED)) {
-                    collectionsExist = true;
-                    System.out.println("Seller: " + seller.getName());
-                    System.out.println("Collection ID: " + antiqueCollection.getAntiqueCollectionID());
-                    System.out.println("Name: " + antiqueCollection.getName());
-                    System.out.println("Type: " + antiqueCollection.getType());
-                    System.out.println("Base Price: " + antiqueCollection.getBasePrice());
-                    System.out.println("-------------------------------");
-                    System.out.println();
-                }
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("Auction Results:");
+        System.out.println("----------------");
+
+        int page = 0;
+        while (true) {
+            List<String> records = pages.apply(page);
+            if (page == 0 && records.isEmpty()) {
+                System.out.println("No auction results found.");
+                return;
+            }
+            for (String record : records) {
+                System.out.print(record);
+            }
+            if (records.size() < RESULTS_PAGE_SIZE) {
+                return;
             }
-        }
 
-        if (!collectionsExist) {
-            System.out.println("No collections available for purchase.");
+            System.out.print("Enter 'n' to view the next page, or press Enter to return: ");
+            if (!scanner.nextLine().equalsIgnoreCase("n")) {
+                return;
+            }
+            page++;
         }
     }
 }
@@ -0,0 +1,99 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The UserDirectory class represents a singleton directory of all users in the auction system.
+ * It maps each username to its user, whatever the role, and guarantees that a username
+ * is used by at most one user.
+ */
+public class UserDirectory {
+    private static UserDirectory instance;
+    private ConcurrentHashMap<String, User> usersByUsername;
+
+    /**
+     * Private constructor to create the singleton instance of UserDirectory.
+     */
+    private UserDirectory() {
+        usersByUsername = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the singleton instance of UserDirectory.
+     *
+     * @return the singleton instance of UserDirectory
+     */
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a user under its username. The check and the registration happen atomically,
+     * so two users can never claim the same username. User IDs allocated later are kept
+     * above the ID of the registered user.
+     *
+     * @param user the user to register
+     * @return true if the user was registered, false if the username is already taken
+     */
+    public boolean register(User user) {
+        if (usersByUsername.putIfAbsent(user.getUsername(), user) != null) {
+            return false;
+        }
+        IdAllocator.users().ensureAbove(user.getUserId());
+        return true;
+    }
+
+    /**
+     * Removes a user from the directory.
+     *
+     * @param user the user to remove
+     */
+    public void unregister(User user) {
+        usersByUsername.remove(user.getUsername(), user);
+    }
+
+    /**
+     * Checks if a username is already taken.
+     *
+     * @param username the username to check
+     * @return true if the username exists, false otherwise
+     */
+    public boolean usernameExists(String username) {
+        return usersByUsername.containsKey(username);
+    }
+
+    /**
+     * Returns the user with the specified username.
+     *
+     * @param username the username of the user to find
+     * @return the user with the specified username, or null if not found
+     */
+    public User getUser(String username) {
+        return usersByUsername.get(username);
+    }
+
+    /**
+     * Returns the user with the specified username and password.
+     *
+     * @param username the username of the user
+     * @param password the password of the user
+     * @return the user if the credentials are valid, otherwise null
+     */
+    public User authenticate(String username, String password) {
+        User user = usersByUsername.get(username);
+        if (user != null && user.getPassword().equals(password)) {
+            return user;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of users in the directory.
+     *
+     * @return the number of users
+     */
+    public int size() {
+        return usersByUsername.size();
+    }
+}
@@ -1,9 +1,28 @@
 import java.util.Scanner;
+import java.util.concurrent.CompletionException;
 
 /**
  * The UserManager class provides methods for creating and logging in users in the auction system.
  */
 public class UserManager {
+    private UserDirectory userDirectory;
+    private BidJournal journal;
+
+    /**
+     * Constructs a UserManager object backed by the user directory.
+     */
+    public UserManager() {
+        this.userDirectory = UserDirectory.getInstance();
+    }
+
+    /**
+     * Sets the journal that new users are written to.
+     *
+     * @param journal the bid journal, or null to stop journaling
+     */
+    public void setJournal(BidJournal journal) {
+        this.journal = journal;
+    }
 
     /**
      * Creates a new user (Seller or Buyer) based on the input provided by the user.
@@ -15,7 +34,7 @@ public class UserManager {
         Scanner scanner = new Scanner(System.in);
         System.out.println("Please enter your username: ");
         String username = scanner.nextLine();
-        if (isUsernameAvailable(username, sellers, buyers)) {
+        if (isUsernameAvailable(username)) {
             System.out.println("Please enter your password: ");
             String password = scanner.nextLine();
             System.out.println("Please enter your name: ");
@@ -30,12 +49,26 @@ public class UserManager {
                 System.out.println("Invalid role. Please choose either Seller or Buyer.");
                 role = scanner.nextLine();
             }
+            // The username is claimed atomically when the user is added, so check again here
+            User user;
+            boolean added;
             if (role.equalsIgnoreCase("Seller")) {
-                Seller seller = new Seller(sellers.size() + 1, username, password, name, address, contactInfo);
-                sellers.addSeller(seller);
+                Seller seller = new Seller(IdAllocator.users().nextId(), username, password, name, address, contactInfo);
+                user = seller;
+                added = sellers.addSeller(seller);
             } else {
-                Buyer buyer = new Buyer(buyers.size() + 1, username, password, name, address, contactInfo);
-                buyers.addBuyer(buyer);
+                Buyer buyer = new Buyer(IdAllocator.users().nextId(), username, password, name, address, contactInfo);
+                user = buyer;
+                added = buyers.addBuyer(buyer);
+            }
+            if (!added) {
+                System.out.println("Username already exists. Please choose another username.");
+            } else if (journal != null) {
+                try {
+                    journal.logUser(user).join();
+                } catch (CompletionException e) {
+                    System.out.println("Error writing user to journal: " + e.getCause().getMessage());
+                }
             }
         } else {
             System.out.println("Username already exists. Please choose another username.");
@@ -45,36 +78,20 @@ public class UserManager {
     /**
      * Logs in a user based on the username and password provided by the user.
      *
-     * @param sellers        the list of sellers
-     * @param buyers         the list of buyers
-     * @param charityLeader  the charity leader
      * @return the logged-in user if the credentials are valid, otherwise null
      */
-    public User login(SellerList sellers, BuyerList buyers, CharityLeader charityLeader) {
+    public User login() {
         Scanner scanner = new Scanner(System.in);
         System.out.println("Please enter your username: ");
         String username = scanner.nextLine();
         System.out.println("Please enter your password: ");
         String password = scanner.nextLine();
 
-        // Search for the user with the given username and password
-        for (Seller seller : sellers.getSellers()) {
-            if (seller.getUsername().equals(username) && seller.getPassword().equals(password)) {
-                System.out.println("Login successful!");
-                return seller;
-            }
-        }
-
-        for (Buyer buyer : buyers.getBuyers()) {
-            if (buyer.getUsername().equals(username) && buyer.getPassword().equals(password)) {
-                System.out.println("Login successful!");
-                return buyer;
-            }
-        }
-
-        if (charityLeader.getUsername().equals(username) && charityLeader.getPassword().equals(password)) {
+        // Look up the user with the given username and password
+        User user = userDirectory.authenticate(username, password);
+        if (user != null) {
             System.out.println("Login successful!");
-            return charityLeader;
+            return user;
         }
 
         System.out.println("Invalid username or password.");
@@ -85,11 +102,9 @@ public class UserManager {
      * Checks if a username is available for a new user.
      *
      * @param username the username to check
-     * @param sellers  the list of sellers
-     * @param buyers   the list of buyers
      * @return true if the username is available, otherwise false
      */
-    private boolean isUsernameAvailable(String username, SellerList sellers, BuyerList buyers) {
-        return !sellers.usernameExists(username) && !buyers.usernameExists(username);
+    private boolean isUsernameAvailable(String username) {
+        return !userDirectory.usernameExists(username);
     }
 }
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The BidJournalTest class tests that the journal recovers the records that were fully
+ * written, whatever the system left behind them when it stopped.
+ */
+public class BidJournalTest {
+    private static final int COLLECTION_ID = 7;
+    private static int buyerCount;
+
+    @TempDir
+    Path directory;
+
+    private Path journalFile;
+    private String buyer;
+    private BuyerList buyerList;
+    private Auction auction;
+
+    /**
+     * Creates a buyer and an auction to recover the journal into. Usernames are shared by
+     * every buyer list, so each test has a buyer of its own.
+     */
+    @BeforeEach
+    public void setUp() {
+        journalFile = directory.resolve("auction_journal.log");
+        buyerCount++;
+        buyer = "journal-test-buyer" + buyerCount;
+        buyerList = new BuyerList();
+        buyerList.addBuyer(new Buyer(900_000 + buyerCount, buyer, "pass", "Journal Buyer", "", ""));
+        auction = new Auction(buyerList, directory.resolve("auction_results.txt").toString());
+    }
+
+    /**
+     * A record that was only partly written when the system stopped is cut off, and the
+     * records before it are replayed.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void recoverDiscardsTornLastRecord() throws IOException {
+        try (BidJournal journal = BidJournal.open(journalFile.toString())) {
+            journal.logBid(1, buyer, COLLECTION_ID, 12_000).join();
+            journal.logBid(2, buyer, COLLECTION_ID, 13_000).join();
+        }
+        long completeLength = Files.size(journalFile);
+        Files.write(journalFile, ("BID\t3\t" + buyer.substring(0, 5)).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        assertEquals(2, recover());
+        assertEquals(2, auction.getBidStore().countForCollection(COLLECTION_ID));
+        assertEquals(completeLength, Files.size(journalFile));
+    }
+
+    /**
+     * A complete record that cannot be read is skipped, and the records after it are still
+     * replayed and kept in the file.
+     *
+     * @throws IOException if the journal cannot be written or read
+     */
+    @Test
+    public void recoverSkipsUnreadableRecord() throws IOException {
+        try (BidJournal journal = BidJournal.open(journalFile.toString())) {
+            journal.logBid(1, buyer, COLLECTION_ID, 12_000).join();
+        }
+        Files.write(journalFile, line("BID", "not-a-number", buyer, String.valueOf(COLLECTION_ID), "125.0"),
+                StandardOpenOption.APPEND);
+        try (BidJournal journal = BidJournal.open(journalFile.toString())) {
+            journal.logBid(3, buyer, COLLECTION_ID, 15_000).join();
+        }
+        long length = Files.size(journalFile);
+
+        assertEquals(2, recover());
+        assertEquals(2, auction.getBidStore().countForCollection(COLLECTION_ID));
+        assertEquals(150.0, auction.getBidStore().highestForCollection(COLLECTION_ID).getAmount());
+        assertEquals(length, Files.size(journalFile));
+    }
+
+    /**
+     * Recovers the journal file into the auction.
+     *
+     * @return the number of records replayed
+     * @throws IOException if the journal cannot be read
+     */
+    private int recover() throws IOException {
+        try (BidJournal journal = BidJournal.open(journalFile.toString())) {
+            return journal.recover(auction, AntiqueCollectionList.getInstance(), new SellerList(), buyerList);
+        }
+    }
+
+    /**
+     * Builds a complete journal line with a valid checksum from fields that need no escaping.
+     *
+     * @param fields the fields of the record
+     * @return the bytes of the line
+     */
+    private static byte[] line(String... fields) {
+        String record = String.join("\t", fields);
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return (record + "\t" + Long.toHexString(crc.getValue()) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The IdAllocatorTest class tests that IDs stay unique when the system is restarted.
+ * The allocator keeps its state in static fields, so each run is a separate JVM.
+ */
+public class IdAllocatorTest {
+    private static final int IDS_PER_RUN = 200;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A restarted system never hands out an ID that was handed out before the restart, even
+     * when the IDs run past several reservations.
+     *
+     * @throws IOException          if a run cannot be started
+     * @throws InterruptedException if the test is interrupted while waiting for a run
+     */
+    @Test
+    public void noDuplicateIdsAcrossRestart() throws IOException, InterruptedException {
+        Path idFile = directory.resolve("auction_ids.properties");
+        List<Integer> firstRun = allocateInNewJvm(idFile);
+        List<Integer> secondRun = allocateInNewJvm(idFile);
+
+        HashSet<Integer> ids = new HashSet<>(firstRun);
+        assertEquals(IDS_PER_RUN, ids.size());
+        for (int id : secondRun) {
+            assertTrue(ids.add(id), "ID " + id + " was handed out twice");
+        }
+    }
+
+    /**
+     * Runs {@link Allocate} in a new JVM with the ID file and one block reserved at a time.
+     *
+     * @param idFile the ID file
+     * @return the IDs handed out by the run
+     * @throws IOException          if the run cannot be started
+     * @throws InterruptedException if the test is interrupted while waiting for the run
+     */
+    private static List<Integer> allocateInNewJvm(Path idFile) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "-Dauction.idFile=" + idFile, "-Dauction.idReservationBlocks=1",
+                Allocate.class.getName(), String.valueOf(IDS_PER_RUN))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (String line : output.split("\\R")) {
+            if (!line.isEmpty()) {
+                ids.add(Integer.parseInt(line));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The Allocate class prints a number of IDs from one sequence, one per line.
+     */
+    public static class Allocate {
+
+        /**
+         * The main method prints the IDs.
+         *
+         * @param args the number of IDs to print
+         */
+        public static void main(String[] args) {
+            IdAllocator allocator = IdAllocator.forName("test");
+            for (int i = Integer.parseInt(args[0]); i > 0; i--) {
+                System.out.println(allocator.nextId());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The TextStoreTest class tests that texts read back the same whether they are still in the
+ * write buffer or have been flushed to the segment file.
+ */
+public class TextStoreTest {
+    private static final int TEXT_COUNT = 1_000;
+
+    /**
+     * Texts appended on both sides of several flushes, including one too long for the write
+     * buffer, read back the same before and after they are flushed.
+     */
+    @Test
+    public void readsTextsAcrossFlushBoundary() {
+        TextStore textStore = TextStore.getInstance();
+        List<String> texts = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < TEXT_COUNT; i++) {
+            String text = conditionReport(i, 500 + i % 700);
+            long handle = textStore.append(text);
+            assertNotEquals(TextStore.NO_HANDLE, handle);
+            // Read each text right away, while it is usually still in the write buffer
+            assertEquals(text, textStore.read(handle));
+            texts.add(text);
+            handles.add(handle);
+
+            if (i == TEXT_COUNT / 2) {
+                String longText = conditionReport(i, 300_000);
+                long longHandle = textStore.append(longText);
+                assertEquals(longText, textStore.read(longHandle));
+            }
+        }
+
+        for (int i = 0; i < TEXT_COUNT; i++) {
+            assertEquals(texts.get(i), textStore.read(handles.get(i)), "text " + i);
+        }
+    }
+
+    /**
+     * Builds a condition report of a given length that differs for every number and contains
+     * characters that take more than one byte in UTF-8.
+     *
+     * @param number the number of the report
+     * @param length the length of the report
+     * @return the report
+     */
+    private static String conditionReport(int number, int length) {
+        StringBuilder report = new StringBuilder("Report " + number + ": ");
+        while (report.length() < length) {
+            report.append("Çok güzel, minor wear ").append(report.length()).append(". ");
+        }
+        return report.substring(0, length);
+    }
+}